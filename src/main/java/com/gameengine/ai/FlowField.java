@@ -0,0 +1,274 @@
+package com.gameengine.ai;
+
+import java.util.Arrays;
+
+/**
+ * 流场：把世界划分为网格，从目标单元做一次广度优先搜索得到积分场（到目标的步数），
+ * 再让每个单元指向代价最低的相邻单元（多个相邻单元代价相同时取它们方向的平均）作为方向场。
+ * 所有追踪者共享同一个流场，按位置对相邻四个单元的方向做双线性插值，得到连续变化的转向方向。
+ * 目标所在单元不变时不重新计算；阻挡单元不可通行，斜向移动不允许穿过阻挡的拐角。
+ * 没有阻挡或与目标之间视线通畅时，调用方应直接朝目标移动（见 hasLineOfSight）。
+ */
+public class FlowField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final float DIAGONAL = (float) (1.0 / Math.sqrt(2.0));
+
+    private final float cellSize;
+    private final float invCellSize;
+    private final int columns;
+    private final int rows;
+    private final boolean[] blocked;
+    private final int[] cost;       // 积分场：到目标单元的步数
+    private final float[] dirX;     // 方向场：单位向量，目标单元和不可达单元为 0
+    private final float[] dirY;
+    private final int[] queue;
+    private int blockedCount;
+    private int targetCell = -1;
+    private boolean dirty = true;
+
+    public FlowField(float worldWidth, float worldHeight, float cellSize) {
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(worldWidth * invCellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight * invCellSize));
+        int cells = columns * rows;
+        this.blocked = new boolean[cells];
+        this.cost = new int[cells];
+        this.dirX = new float[cells];
+        this.dirY = new float[cells];
+        this.queue = new int[cells];
+    }
+
+    /**
+     * 设置世界坐标所在单元是否阻挡，下次 update 时重新计算
+     */
+    public void setBlocked(float x, float y, boolean value) {
+        int cell = cellIndex(x, y);
+        if (blocked[cell] != value) {
+            blocked[cell] = value;
+            blockedCount += value ? 1 : -1;
+            dirty = true;
+        }
+    }
+
+    /**
+     * 将与矩形相交的所有单元标记为阻挡或可通行
+     */
+    public void setBlockedRect(float minX, float minY, float maxX, float maxY, boolean value) {
+        int c0 = clampColumn((int) Math.floor(minX * invCellSize));
+        int c1 = clampColumn((int) Math.floor(maxX * invCellSize));
+        int r0 = clampRow((int) Math.floor(minY * invCellSize));
+        int r1 = clampRow((int) Math.floor(maxY * invCellSize));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                if (blocked[cell] != value) {
+                    blocked[cell] = value;
+                    blockedCount += value ? 1 : -1;
+                }
+            }
+        }
+        dirty = true;
+    }
+
+    public void clearBlocked() {
+        Arrays.fill(blocked, false);
+        blockedCount = 0;
+        dirty = true;
+    }
+
+    /**
+     * 朝向目标更新流场；目标仍在同一单元且阻挡未变化时直接返回
+     * @return 是否重新计算了流场
+     */
+    public boolean update(float targetX, float targetY) {
+        int cell = cellIndex(targetX, targetY);
+        if (cell == targetCell && !dirty) return false;
+        targetCell = cell;
+        dirty = false;
+        buildIntegrationField();
+        buildDirectionField();
+        return true;
+    }
+
+    // 从目标单元出发的四邻域广度优先搜索
+    private void buildIntegrationField() {
+        Arrays.fill(cost, UNREACHABLE);
+        if (blocked[targetCell]) return;
+        int head = 0;
+        int tail = 0;
+        cost[targetCell] = 0;
+        queue[tail++] = targetCell;
+        while (head < tail) {
+            int cell = queue[head++];
+            int c = cell % columns;
+            int next = cost[cell] + 1;
+            if (c > 0) tail = visit(cell - 1, next, tail);
+            if (c < columns - 1) tail = visit(cell + 1, next, tail);
+            if (cell >= columns) tail = visit(cell - columns, next, tail);
+            if (cell < cost.length - columns) tail = visit(cell + columns, next, tail);
+        }
+    }
+
+    private int visit(int cell, int value, int tail) {
+        if (blocked[cell] || cost[cell] != UNREACHABLE) return tail;
+        cost[cell] = value;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    // 每个单元指向八邻域中代价最低的单元，代价相同的单元方向取平均，避免偏向扫描顺序靠前的邻居
+    private void buildDirectionField() {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int cell = r * columns + c;
+                dirX[cell] = 0f;
+                dirY[cell] = 0f;
+                int current = cost[cell];
+                if (current == UNREACHABLE || current == 0) continue;
+
+                int best = current;
+                float sumX = 0f;
+                float sumY = 0f;
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nr = r + dy;
+                    if (nr < 0 || nr >= rows) continue;
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (dx == 0 && dy == 0) continue;
+                        int nc = c + dx;
+                        if (nc < 0 || nc >= columns) continue;
+                        int neighbour = nr * columns + nc;
+                        if (cost[neighbour] > best) continue;
+                        // 斜向移动要求两侧的正交单元都可通行
+                        if (dx != 0 && dy != 0 && (blocked[cell + dx] || blocked[cell + dy * columns])) continue;
+                        if (cost[neighbour] < best) {
+                            best = cost[neighbour];
+                            sumX = 0f;
+                            sumY = 0f;
+                        }
+                        float scale = dx != 0 && dy != 0 ? DIAGONAL : 1f;
+                        sumX += dx * scale;
+                        sumY += dy * scale;
+                    }
+                }
+                if (best == current) continue;
+                float length = (float) Math.sqrt(sumX * sumX + sumY * sumY);
+                if (length > 0f) {
+                    dirX[cell] = sumX / length;
+                    dirY[cell] = sumY / length;
+                }
+            }
+        }
+    }
+
+    /**
+     * 按位置对周围四个单元中心的方向做双线性插值，结果写入 out[0], out[1]（未归一化）
+     */
+    public void sampleDirection(float x, float y, float[] out) {
+        float fx = x * invCellSize - 0.5f;
+        float fy = y * invCellSize - 0.5f;
+        int c0 = (int) Math.floor(fx);
+        int r0 = (int) Math.floor(fy);
+        float tx = fx - c0;
+        float ty = fy - r0;
+        int c1 = clampColumn(c0 + 1);
+        int r1 = clampRow(r0 + 1);
+        c0 = clampColumn(c0);
+        r0 = clampRow(r0);
+        int a = r0 * columns + c0;
+        int b = r0 * columns + c1;
+        int c = r1 * columns + c0;
+        int d = r1 * columns + c1;
+        float wa = (1 - tx) * (1 - ty);
+        float wb = tx * (1 - ty);
+        float wc = (1 - tx) * ty;
+        float wd = tx * ty;
+        out[0] = dirX[a] * wa + dirX[b] * wb + dirX[c] * wc + dirX[d] * wd;
+        out[1] = dirY[a] * wa + dirY[b] * wb + dirY[c] * wc + dirY[d] * wd;
+    }
+
+    /**
+     * 两点之间的线段是否不经过任何阻挡单元（按网格逐格步进）；没有阻挡时直接返回 true
+     */
+    public boolean hasLineOfSight(float x0, float y0, float x1, float y1) {
+        if (blockedCount == 0) return true;
+        int c = clampColumn((int) Math.floor(x0 * invCellSize));
+        int r = clampRow((int) Math.floor(y0 * invCellSize));
+        int endC = clampColumn((int) Math.floor(x1 * invCellSize));
+        int endR = clampRow((int) Math.floor(y1 * invCellSize));
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int stepC = dx > 0 ? 1 : -1;
+        int stepR = dy > 0 ? 1 : -1;
+        // 到下一条竖直/水平网格线的参数距离，以及每跨过一格参数的增量
+        float deltaX = dx != 0 ? Math.abs(cellSize / dx) : Float.MAX_VALUE;
+        float deltaY = dy != 0 ? Math.abs(cellSize / dy) : Float.MAX_VALUE;
+        float nextX = dx != 0 ? ((stepC > 0 ? (c + 1) * cellSize - x0 : x0 - c * cellSize) / Math.abs(dx)) : Float.MAX_VALUE;
+        float nextY = dy != 0 ? ((stepR > 0 ? (r + 1) * cellSize - y0 : y0 - r * cellSize) / Math.abs(dy)) : Float.MAX_VALUE;
+        int steps = Math.abs(endC - c) + Math.abs(endR - r);
+        for (int i = 0; i <= steps; i++) {
+            if (blocked[r * columns + c]) return false;
+            if (c == endC && r == endR) return true;
+            if (nextX < nextY) {
+                c = clampColumn(c + stepC);
+                nextX += deltaX;
+            } else {
+                r = clampRow(r + stepR);
+                nextY += deltaY;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasObstacles() {
+        return blockedCount > 0;
+    }
+
+    public int cellIndex(float x, float y) {
+        int c = clampColumn((int) Math.floor(x * invCellSize));
+        int r = clampRow((int) Math.floor(y * invCellSize));
+        return r * columns + c;
+    }
+
+    private int clampColumn(int c) {
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+    private int clampRow(int r) {
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    public float getDirectionX(int cell) {
+        return dirX[cell];
+    }
+
+    public float getDirectionY(int cell) {
+        return dirY[cell];
+    }
+
+    // 到目标单元的步数，不可达时为 UNREACHABLE
+    public int getCost(int cell) {
+        return cost[cell];
+    }
+
+    public boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    public int getTargetCell() {
+        return targetCell;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,328 @@
+package com.gameengine.ai;
+
+import com.gameengine.core.SpatialGrid;
+
+/**
+ * ORCA（最优互惠碰撞避免）局部避障求解器。
+ * 每个个体根据邻居的相对位置和速度构造一组速度半平面约束，
+ * 在最大速度圆内求出最接近期望速度的可行速度；约束无解时退化为最小化最大违背量（三维线性规划）。
+ * 算法移植自 RVO2（只处理个体之间的约束，不含静态障碍）。
+ *
+ * 使用方式：每帧先 bind 位置、速度、期望速度和邻居网格，再按区间调用 solveRange，
+ * 各区间只读绑定的数组、只写自己下标的输出，可以在工作线程组上并行执行。
+ */
+public class RVOSolver {
+    private static final float EPSILON = 0.00001f;
+
+    private final float radius;         // 个体半径
+    private final float neighborDist;   // 邻居搜索距离
+    private final int maxNeighbors;     // 参与约束的最近邻居数
+    private final float timeHorizon;    // 预测时间（秒），越大越早开始避让
+
+    private SpatialGrid grid;
+    private float[] px, py, vx, vy, prefVx, prefVy;
+    private int count;
+
+    private final ThreadLocal<Workspace> workspaces;
+
+    public RVOSolver(float radius, float neighborDist, int maxNeighbors, float timeHorizon) {
+        this.radius = radius;
+        this.neighborDist = neighborDist;
+        this.maxNeighbors = Math.max(1, maxNeighbors);
+        this.timeHorizon = timeHorizon;
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(this.maxNeighbors));
+    }
+
+    /**
+     * 绑定本帧数据；grid 必须已用同一组位置构建
+     */
+    public void bind(SpatialGrid grid, float[] px, float[] py, float[] vx, float[] vy,
+                     float[] prefVx, float[] prefVy, int count) {
+        this.grid = grid;
+        this.px = px;
+        this.py = py;
+        this.vx = vx;
+        this.vy = vy;
+        this.prefVx = prefVx;
+        this.prefVy = prefVy;
+        this.count = count;
+    }
+
+    /**
+     * 求解 [start, end) 区间内的新速度；timeSteps[i] <= 0 的个体本帧不求解，保持当前速度
+     */
+    public void solveRange(int start, int end, float[] timeSteps, float maxSpeed, float[] outVx, float[] outVy) {
+        Workspace ws = workspaces.get();
+        for (int i = start; i < end; i++) {
+            float timeStep = timeSteps[i];
+            if (timeStep <= 0f) {
+                outVx[i] = vx[i];
+                outVy[i] = vy[i];
+                continue;
+            }
+            computeNewVelocity(i, timeStep, maxSpeed, ws);
+            outVx[i] = ws.resultX;
+            outVy[i] = ws.resultY;
+        }
+    }
+
+    private void computeNewVelocity(int i, float timeStep, float maxSpeed, Workspace ws) {
+        int neighbours = findNeighbours(i, ws);
+        float invTimeHorizon = 1.0f / timeHorizon;
+        float invTimeStep = 1.0f / timeStep;
+        float combinedRadius = radius * 2;
+        float combinedRadiusSq = combinedRadius * combinedRadius;
+        float velX = vx[i];
+        float velY = vy[i];
+
+        int lineCount = 0;
+        for (int k = 0; k < neighbours; k++) {
+            int j = ws.neighbourIndex[k];
+            float relPosX = px[j] - px[i];
+            float relPosY = py[j] - py[i];
+            float relVelX = velX - vx[j];
+            float relVelY = velY - vy[j];
+            float distSq = relPosX * relPosX + relPosY * relPosY;
+
+            float dirX, dirY, uX, uY;
+            if (distSq > combinedRadiusSq) {
+                // 尚未碰撞：速度障碍为截断圆锥
+                float wX = relVelX - invTimeHorizon * relPosX;
+                float wY = relVelY - invTimeHorizon * relPosY;
+                float wLengthSq = wX * wX + wY * wY;
+                float dot1 = wX * relPosX + wY * relPosY;
+                if (dot1 < 0f && dot1 * dot1 > combinedRadiusSq * wLengthSq) {
+                    // 投影到截断圆上
+                    float wLength = (float) Math.sqrt(wLengthSq);
+                    float unitWX = wX / wLength;
+                    float unitWY = wY / wLength;
+                    dirX = unitWY;
+                    dirY = -unitWX;
+                    float scale = combinedRadius * invTimeHorizon - wLength;
+                    uX = scale * unitWX;
+                    uY = scale * unitWY;
+                } else {
+                    // 投影到圆锥的腰上
+                    float leg = (float) Math.sqrt(distSq - combinedRadiusSq);
+                    if (det(relPosX, relPosY, wX, wY) > 0f) {
+                        dirX = (relPosX * leg - relPosY * combinedRadius) / distSq;
+                        dirY = (relPosX * combinedRadius + relPosY * leg) / distSq;
+                    } else {
+                        dirX = -(relPosX * leg + relPosY * combinedRadius) / distSq;
+                        dirY = -(-relPosX * combinedRadius + relPosY * leg) / distSq;
+                    }
+                    float dot2 = relVelX * dirX + relVelY * dirY;
+                    uX = dot2 * dirX - relVelX;
+                    uY = dot2 * dirY - relVelY;
+                }
+            } else {
+                // 已经重叠：在一个时间步内分开
+                float wX = relVelX - invTimeStep * relPosX;
+                float wY = relVelY - invTimeStep * relPosY;
+                float wLength = (float) Math.sqrt(wX * wX + wY * wY);
+                if (wLength < EPSILON) continue;
+                float unitWX = wX / wLength;
+                float unitWY = wY / wLength;
+                dirX = unitWY;
+                dirY = -unitWX;
+                float scale = combinedRadius * invTimeStep - wLength;
+                uX = scale * unitWX;
+                uY = scale * unitWY;
+            }
+            // 互惠：双方各承担一半的避让
+            ws.linePointX[lineCount] = velX + 0.5f * uX;
+            ws.linePointY[lineCount] = velY + 0.5f * uY;
+            ws.lineDirX[lineCount] = dirX;
+            ws.lineDirY[lineCount] = dirY;
+            lineCount++;
+        }
+
+        int lineFail = linearProgram2(ws.linePointX, ws.linePointY, ws.lineDirX, ws.lineDirY, lineCount,
+                maxSpeed, prefVx[i], prefVy[i], false, ws);
+        if (lineFail < lineCount) {
+            linearProgram3(lineCount, lineFail, maxSpeed, ws);
+        }
+    }
+
+    // 在网格中查找 neighborDist 内最近的 maxNeighbors 个邻居（按距离插入排序）
+    private int findNeighbours(int i, Workspace ws) {
+        float x = px[i];
+        float y = py[i];
+        float rangeSq = neighborDist * neighborDist;
+        int found = grid.query(x, y, neighborDist, ws.candidates);
+        int kept = 0;
+        for (int k = 0; k < found; k++) {
+            int j = ws.candidates[k];
+            if (j == i || j >= count) continue;
+            float dx = px[j] - x;
+            float dy = py[j] - y;
+            float distSq = dx * dx + dy * dy;
+            if (distSq >= rangeSq) continue;
+            if (kept == maxNeighbors && distSq >= ws.neighbourDistSq[kept - 1]) continue;
+            int slot = kept < maxNeighbors ? kept++ : kept - 1;
+            while (slot > 0 && ws.neighbourDistSq[slot - 1] > distSq) {
+                ws.neighbourDistSq[slot] = ws.neighbourDistSq[slot - 1];
+                ws.neighbourIndex[slot] = ws.neighbourIndex[slot - 1];
+                slot--;
+            }
+            ws.neighbourDistSq[slot] = distSq;
+            ws.neighbourIndex[slot] = j;
+        }
+        return kept;
+    }
+
+    // 在第 lineNo 条约束直线上求解一维线性规划
+    private static boolean linearProgram1(float[] pointX, float[] pointY, float[] dirX, float[] dirY, int lineNo,
+                                          float radius, float optX, float optY, boolean directionOpt, Workspace ws) {
+        float dot = pointX[lineNo] * dirX[lineNo] + pointY[lineNo] * dirY[lineNo];
+        float discriminant = dot * dot + radius * radius
+                - (pointX[lineNo] * pointX[lineNo] + pointY[lineNo] * pointY[lineNo]);
+        if (discriminant < 0f) {
+            // 最大速度圆使该直线完全不可行
+            return false;
+        }
+        float sqrtDiscriminant = (float) Math.sqrt(discriminant);
+        float tLeft = -dot - sqrtDiscriminant;
+        float tRight = -dot + sqrtDiscriminant;
+
+        for (int i = 0; i < lineNo; i++) {
+            float denominator = det(dirX[lineNo], dirY[lineNo], dirX[i], dirY[i]);
+            float numerator = det(dirX[i], dirY[i], pointX[lineNo] - pointX[i], pointY[lineNo] - pointY[i]);
+            if (Math.abs(denominator) <= EPSILON) {
+                // 两条直线（近似）平行
+                if (numerator < 0f) return false;
+                continue;
+            }
+            float t = numerator / denominator;
+            if (denominator >= 0f) {
+                tRight = Math.min(tRight, t);
+            } else {
+                tLeft = Math.max(tLeft, t);
+            }
+            if (tLeft > tRight) return false;
+        }
+
+        float t;
+        if (directionOpt) {
+            t = optX * dirX[lineNo] + optY * dirY[lineNo] > 0f ? tRight : tLeft;
+        } else {
+            t = dirX[lineNo] * (optX - pointX[lineNo]) + dirY[lineNo] * (optY - pointY[lineNo]);
+            if (t < tLeft) t = tLeft;
+            else if (t > tRight) t = tRight;
+        }
+        ws.resultX = pointX[lineNo] + t * dirX[lineNo];
+        ws.resultY = pointY[lineNo] + t * dirY[lineNo];
+        return true;
+    }
+
+    // 二维线性规划：逐条加入约束，返回第一条无法满足的约束下标（全部满足时返回 lineCount）
+    private static int linearProgram2(float[] pointX, float[] pointY, float[] dirX, float[] dirY, int lineCount,
+                                      float radius, float optX, float optY, boolean directionOpt, Workspace ws) {
+        if (directionOpt) {
+            // 此时 opt 为单位方向
+            ws.resultX = optX * radius;
+            ws.resultY = optY * radius;
+        } else if (optX * optX + optY * optY > radius * radius) {
+            float length = (float) Math.sqrt(optX * optX + optY * optY);
+            ws.resultX = optX / length * radius;
+            ws.resultY = optY / length * radius;
+        } else {
+            ws.resultX = optX;
+            ws.resultY = optY;
+        }
+
+        for (int i = 0; i < lineCount; i++) {
+            if (det(dirX[i], dirY[i], pointX[i] - ws.resultX, pointY[i] - ws.resultY) > 0f) {
+                // 当前结果违反约束 i
+                float tempX = ws.resultX;
+                float tempY = ws.resultY;
+                if (!linearProgram1(pointX, pointY, dirX, dirY, i, radius, optX, optY, directionOpt, ws)) {
+                    ws.resultX = tempX;
+                    ws.resultY = tempY;
+                    return i;
+                }
+            }
+        }
+        return lineCount;
+    }
+
+    // 约束无解时：最小化对所有约束的最大违背距离
+    private static void linearProgram3(int lineCount, int beginLine, float radius, Workspace ws) {
+        float distance = 0f;
+        for (int i = beginLine; i < lineCount; i++) {
+            if (det(ws.lineDirX[i], ws.lineDirY[i], ws.linePointX[i] - ws.resultX, ws.linePointY[i] - ws.resultY) <= distance) {
+                continue;
+            }
+            int projCount = 0;
+            for (int j = 0; j < i; j++) {
+                float determinant = det(ws.lineDirX[i], ws.lineDirY[i], ws.lineDirX[j], ws.lineDirY[j]);
+                float pointX, pointY;
+                if (Math.abs(determinant) <= EPSILON) {
+                    if (ws.lineDirX[i] * ws.lineDirX[j] + ws.lineDirY[i] * ws.lineDirY[j] > 0f) {
+                        // 同向平行
+                        continue;
+                    }
+                    pointX = 0.5f * (ws.linePointX[i] + ws.linePointX[j]);
+                    pointY = 0.5f * (ws.linePointY[i] + ws.linePointY[j]);
+                } else {
+                    float t = det(ws.lineDirX[j], ws.lineDirY[j],
+                            ws.linePointX[i] - ws.linePointX[j], ws.linePointY[i] - ws.linePointY[j]) / determinant;
+                    pointX = ws.linePointX[i] + t * ws.lineDirX[i];
+                    pointY = ws.linePointY[i] + t * ws.lineDirY[i];
+                }
+                float dX = ws.lineDirX[j] - ws.lineDirX[i];
+                float dY = ws.lineDirY[j] - ws.lineDirY[i];
+                float length = (float) Math.sqrt(dX * dX + dY * dY);
+                if (length < EPSILON) continue;
+                ws.projPointX[projCount] = pointX;
+                ws.projPointY[projCount] = pointY;
+                ws.projDirX[projCount] = dX / length;
+                ws.projDirY[projCount] = dY / length;
+                projCount++;
+            }
+
+            float tempX = ws.resultX;
+            float tempY = ws.resultY;
+            if (linearProgram2(ws.projPointX, ws.projPointY, ws.projDirX, ws.projDirY, projCount,
+                    radius, -ws.lineDirY[i], ws.lineDirX[i], true, ws) < projCount) {
+                // 理论上不会发生（数值误差），保留上一个结果
+                ws.resultX = tempX;
+                ws.resultY = tempY;
+            }
+            distance = det(ws.lineDirX[i], ws.lineDirY[i], ws.linePointX[i] - ws.resultX, ws.linePointY[i] - ws.resultY);
+        }
+    }
+
+    private static float det(float ax, float ay, float bx, float by) {
+        return ax * by - ay * bx;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * 每个线程独立的工作区：邻居、约束直线和求解结果
+     */
+    private static final class Workspace {
+        final int[] candidates = new int[512];
+        final int[] neighbourIndex;
+        final float[] neighbourDistSq;
+        final float[] linePointX, linePointY, lineDirX, lineDirY;
+        final float[] projPointX, projPointY, projDirX, projDirY;
+        float resultX, resultY;
+
+        Workspace(int maxNeighbors) {
+            neighbourIndex = new int[maxNeighbors];
+            neighbourDistSq = new float[maxNeighbors];
+            linePointX = new float[maxNeighbors];
+            linePointY = new float[maxNeighbors];
+            lineDirX = new float[maxNeighbors];
+            lineDirY = new float[maxNeighbors];
+            projPointX = new float[maxNeighbors];
+            projPointY = new float[maxNeighbors];
+            projDirX = new float[maxNeighbors];
+            projDirY = new float[maxNeighbors];
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.gameengine.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 效用 AI：每个行为的得分 = 权重 × 各项考量（consideration）经响应曲线映射后的乘积，
+ * 每个个体选择得分最高的行为（当前行为额外加上惯性分，避免来回切换）。
+ * 行为和考量都以数据配置，输入和得分以结构数组（每个输入一个 float[]）存放，
+ * 评估时按“行为 → 考量 → 个体”的顺序对连续数组做批量循环，而不是逐个对象调用虚方法。
+ * evaluate 只读写 [start, end) 区间，可以在工作线程组上按区间并行。
+ */
+public class UtilityBrain {
+    // 行为
+    public static final int CHASE = 0;      // 追击玩家
+    public static final int FLANK = 1;      // 绕到玩家侧面
+    public static final int FLEE = 2;       // 逃离玩家
+    public static final int SEEK_DROP = 3;  // 前往武器掉落
+    public static final int ACTION_COUNT = 4;
+
+    // 输入（均归一化到 [0, 1]）
+    public static final int INPUT_PLAYER_DISTANCE = 0;  // 与玩家的距离
+    public static final int INPUT_HEALTH = 1;           // 血量比例
+    public static final int INPUT_DROP_DISTANCE = 2;    // 与最近掉落物的距离（没有时为 1）
+    public static final int INPUT_CROWDING = 3;         // 玩家周围的拥挤程度
+    public static final int INPUT_COUNT = 4;
+
+    /**
+     * 考量：y = clamp(slope * x'^exponent + offset)，x' = invert ? 1 - x : x
+     */
+    private static final class Consideration {
+        final int input;
+        final boolean invert;
+        final float exponent;
+        final float slope;
+        final float offset;
+
+        Consideration(int input, boolean invert, float exponent, float slope, float offset) {
+            this.input = input;
+            this.invert = invert;
+            this.exponent = exponent;
+            this.slope = slope;
+            this.offset = offset;
+        }
+    }
+
+    private final float[] weights = new float[ACTION_COUNT];
+    private final List<List<Consideration>> considerations = new ArrayList<>();
+    private float inertia = 0.1f;
+
+    private float[][] inputs = new float[INPUT_COUNT][0];
+    private float[][] scores = new float[ACTION_COUNT][0];
+    private int[] actions = new int[0];     // 输入为上一次的行为，输出为本次选择的行为
+
+    public UtilityBrain() {
+        for (int a = 0; a < ACTION_COUNT; a++) {
+            weights[a] = 1f;
+            considerations.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * 默认配置：
+     * 追击 —— 血量越高越倾向，玩家周围越拥挤越不倾向；
+     * 包抄 —— 玩家周围拥挤且距离适中时倾向；
+     * 逃跑 —— 血量很低且离玩家近时倾向；
+     * 拾取 —— 附近有掉落物且玩家较远时倾向。
+     */
+    public static UtilityBrain createDefault() {
+        UtilityBrain brain = new UtilityBrain();
+        brain.setWeight(CHASE, 1.0f)
+             .addConsideration(CHASE, INPUT_HEALTH, false, 1f, 0.5f, 0.5f)
+             .addConsideration(CHASE, INPUT_CROWDING, false, 1f, -0.6f, 1f);
+        brain.setWeight(FLANK, 0.9f)
+             .addConsideration(FLANK, INPUT_CROWDING, false, 1f, 1f, 0f)
+             .addConsideration(FLANK, INPUT_PLAYER_DISTANCE, true, 2f, 1f, 0f);
+        brain.setWeight(FLEE, 1.0f)
+             .addConsideration(FLEE, INPUT_HEALTH, true, 3f, 1f, 0f)
+             .addConsideration(FLEE, INPUT_PLAYER_DISTANCE, true, 1f, 1f, 0f);
+        brain.setWeight(SEEK_DROP, 0.8f)
+             .addConsideration(SEEK_DROP, INPUT_DROP_DISTANCE, true, 2f, 1f, 0f)
+             .addConsideration(SEEK_DROP, INPUT_PLAYER_DISTANCE, false, 1f, 1f, 0f);
+        return brain;
+    }
+
+    public UtilityBrain setWeight(int action, float weight) {
+        weights[action] = weight;
+        return this;
+    }
+
+    public UtilityBrain addConsideration(int action, int input, boolean invert, float exponent, float slope, float offset) {
+        considerations.get(action).add(new Consideration(input, invert, exponent, slope, offset));
+        return this;
+    }
+
+    public void setInertia(float inertia) {
+        this.inertia = inertia;
+    }
+
+    /**
+     * 保证可以容纳 n 个个体（扩容时保留已有数据）
+     */
+    public void ensureCapacity(int n) {
+        if (actions.length >= n) return;
+        int cap = Math.max(n, actions.length * 2);
+        for (int k = 0; k < INPUT_COUNT; k++) {
+            inputs[k] = java.util.Arrays.copyOf(inputs[k], cap);
+        }
+        for (int a = 0; a < ACTION_COUNT; a++) {
+            scores[a] = new float[cap];
+        }
+        actions = java.util.Arrays.copyOf(actions, cap);
+    }
+
+    // 第 input 项输入的数组，由调用方填写
+    public float[] getInput(int input) {
+        return inputs[input];
+    }
+
+    public int[] getActions() {
+        return actions;
+    }
+
+    public float getScore(int action, int index) {
+        return scores[action][index];
+    }
+
+    /**
+     * 批量评估 [start, end) 区间内个体的所有行为得分，并把选出的行为写回 actions
+     */
+    public void evaluate(int start, int end) {
+        for (int a = 0; a < ACTION_COUNT; a++) {
+            float[] score = scores[a];
+            java.util.Arrays.fill(score, start, end, weights[a]);
+            for (Consideration c : considerations.get(a)) {
+                float[] in = inputs[c.input];
+                for (int i = start; i < end; i++) {
+                    float x = c.invert ? 1f - in[i] : in[i];
+                    float y = c.slope * curve(x, c.exponent) + c.offset;
+                    score[i] *= y < 0f ? 0f : (y > 1f ? 1f : y);
+                }
+            }
+        }
+
+        for (int i = start; i < end; i++) {
+            int current = actions[i];
+            int best = current;
+            float bestScore = -1f;
+            for (int a = 0; a < ACTION_COUNT; a++) {
+                float s = scores[a][i] + (a == current ? inertia : 0f);
+                if (s > bestScore) {
+                    bestScore = s;
+                    best = a;
+                }
+            }
+            actions[i] = best;
+        }
+    }
+
+    // 常用整数指数直接相乘，避免 Math.pow
+    private static float curve(float x, float exponent) {
+        if (x <= 0f) return 0f;
+        if (exponent == 1f) return x;
+        if (exponent == 2f) return x * x;
+        if (exponent == 3f) return x * x * x;
+        return (float) Math.pow(x, exponent);
+    }
+}
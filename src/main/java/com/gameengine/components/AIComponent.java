@@ -0,0 +1,94 @@
+package com.gameengine.components;
+
+import com.gameengine.core.Component;
+
+/**
+ * AI 组件：记录 AI 的细节层级（LOD）和调度状态。
+ * 近处 AI 每帧更新转向，中距离 AI 每隔若干帧（错开）更新，远处 AI 在每帧的预算内轮流更新；
+ * 未更新的帧里沿用上次的速度由物理系统外推。
+ */
+public class AIComponent extends Component<AIComponent> {
+    /**
+     * 细节层级
+     */
+    public enum LodTier {
+        NEAR,   // 每帧更新
+        MID,    // 每 AI_LOD_MID_INTERVAL 帧更新
+        FAR     // 按预算轮流更新
+    }
+
+    private static int nextStagger = 0;
+
+    private LodTier lodTier;
+    private final int stagger;      // 错开中距离 AI 的更新帧
+    private int ticksSinceThink;    // 距上次更新转向经过的帧数
+    private boolean due;            // 本帧是否更新转向
+    private int thinkTicks;         // 本帧更新覆盖的帧数
+    private int action;             // 效用 AI 当前选择的行为（UtilityBrain 常量）
+
+    public AIComponent() {
+        this.lodTier = LodTier.NEAR;
+        this.stagger = nextStagger++;
+        this.ticksSinceThink = 0;
+        this.due = true;
+        this.thinkTicks = 1;
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void render() {
+    }
+
+    /**
+     * 进入新的一帧：累计未更新帧数
+     */
+    public void advanceTick() {
+        ticksSinceThink++;
+        due = false;
+    }
+
+    /**
+     * 标记本帧更新转向，此次更新覆盖自上次更新以来经过的所有帧
+     */
+    public void markDue() {
+        due = true;
+        thinkTicks = Math.max(1, ticksSinceThink);
+        ticksSinceThink = 0;
+    }
+
+    // 本帧更新覆盖的帧数（用于按经过时间缩放转向）
+    public int getThinkTicks() {
+        return thinkTicks;
+    }
+
+    public boolean isDue() {
+        return due;
+    }
+
+    public int getTicksSinceThink() {
+        return ticksSinceThink;
+    }
+
+    public int getAction() {
+        return action;
+    }
+
+    public void setAction(int action) {
+        this.action = action;
+    }
+
+    public LodTier getLodTier() {
+        return lodTier;
+    }
+
+    public void setLodTier(LodTier lodTier) {
+        this.lodTier = lodTier;
+    }
+
+    public int getStagger() {
+        return stagger;
+    }
+}
@@ -11,11 +11,19 @@ import java.util.Random;
  * 血量组件，管理游戏对象的生命值
  */
 public class HealthComponent extends Component<HealthComponent> {
+    /**
+     * 死亡处理器：设置后由处理器接管非玩家对象的死亡（如回收到对象池），不再销毁对象
+     */
+    public interface DeathHandler {
+        void onDeath(GameObject owner);
+    }
+
     private float maxHealth;
     private float currentHealth;
     private boolean isInvulnerable;
     private float invulnerableTime;
     private float invulnerableTimer;
+    private DeathHandler deathHandler;
 
     public HealthComponent(float maxHealth) {
         this.maxHealth = maxHealth;
@@ -127,16 +135,19 @@ public class HealthComponent extends Component<HealthComponent> {
 
         System.out.println(owner.getName() + " 死亡");
 
-        // 生成武器掉落
+        // 生成武器掉落，然后销毁对象或交给死亡处理器
         if (owner != null && !owner.getName().equals("Player")) {
             generateWeaponDrop();
-            owner.destroy();
+            if (deathHandler != null) {
+                deathHandler.onDeath(owner);
+            } else {
+                owner.destroy();
+            }
         }
+    }
 
-        // 销毁对象
-        if (owner != null && !owner.getName().equals("Player")) {
-            owner.destroy();
-        }
+    public void setDeathHandler(DeathHandler deathHandler) {
+        this.deathHandler = deathHandler;
     }
 
     private void generateWeaponDrop() {
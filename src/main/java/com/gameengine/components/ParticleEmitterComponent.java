@@ -0,0 +1,50 @@
+package com.gameengine.components;
+
+import com.gameengine.core.Component;
+import com.gameengine.core.ParticleSystem;
+import com.gameengine.scene.Scene;
+
+/**
+ * 粒子发射器组件：让游戏对象持续发射粒子，发射器的生命周期与对象绑定。
+ * 对象失活（死亡、销毁或回收到对象池）时发射器停止生成，剩余粒子消失后由 ParticleManager 回收；
+ * 对象重新激活后在下一次更新时重新申请发射器。
+ */
+public class ParticleEmitterComponent extends Component<ParticleEmitterComponent> {
+    private final ParticleSystem.Config config;
+    private ParticleSystem emitter;
+
+    public ParticleEmitterComponent(ParticleSystem.Config config) {
+        this.config = config;
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        // 发射器已释放（句柄可能已被复用）时重新申请
+        if (emitter == null || emitter.getOwner() != owner || emitter.isReleased()) {
+            Scene scene = owner != null ? owner.getScene() : null;
+            emitter = scene != null ? scene.getParticleManager().createEmitter(owner, config) : null;
+        }
+    }
+
+    @Override
+    public void render() {
+        // 粒子由场景的 ParticleManager 统一渲染
+    }
+
+    @Override
+    public void destroy() {
+        if (emitter != null && emitter.getOwner() == owner) {
+            emitter.release();
+        }
+        emitter = null;
+        super.destroy();
+    }
+
+    public ParticleSystem getEmitter() {
+        return emitter;
+    }
+}
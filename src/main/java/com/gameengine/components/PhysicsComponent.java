@@ -1,11 +1,13 @@
 package com.gameengine.components;
 
+import com.gameengine.config.GameConfig;
 import com.gameengine.core.Component;
 import com.gameengine.math.Vector2;
 
 /**
  * 物理组件：管理游戏对象的物理属性（速度、加速度、质量、摩擦等）。
  * 与PhysicsSystem配合实现物理模拟。
+ * 速度持续低于休眠阈值的刚体会进入休眠，PhysicsSystem 跳过休眠刚体；施加冲量、力或较大速度时自动唤醒。
  */
 public class PhysicsComponent extends Component<PhysicsComponent> {
     private Vector2 velocity;   // 速度
@@ -14,6 +16,10 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     private float friction; // 摩擦力
     private boolean useGravity; // 是否使用重力
     private Vector2 gravity;    // 重力方向和大小
+    private boolean sleeping;   // 是否处于休眠状态
+    private float sleepTimer;   // 连续低速的累计时间
+    private boolean allowSleep; // 是否允许休眠
+    private int deferredSteps;  // 位于休眠区块时累积、尚未模拟的子步数
 
     /**
      * 默认构造函数：零速度、零加速度，质量1，摩擦0.9，禁用重力
@@ -25,6 +31,9 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
         this.friction = 0.9f;
         this.useGravity = false;
         this.gravity = new Vector2(0, 9.8f);  // 默认向下重力
+        this.sleeping = false;
+        this.sleepTimer = 0f;
+        this.allowSleep = true;
     }
 
     // 指定重量的构造函数
@@ -47,22 +56,29 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     public void applyForce(Vector2 force) {
         if (mass > 0) {
             acceleration = acceleration.add(force.multiply(1.0f / mass));
+            wakeIfMoving(force.x, force.y);
         }
     }
     
     public void applyImpulse(Vector2 impulse) {
         if (mass > 0) {
             velocity = velocity.add(impulse.multiply(1.0f / mass));
+            wakeIfMoving(impulse.x, impulse.y);
         }
     }
-    public void setAbsVelocity(float Velocity){this.velocity = this.velocity.normalize().multiply(Velocity);}
+    public void setAbsVelocity(float Velocity){
+        this.velocity = this.velocity.normalize().multiply(Velocity);
+        wakeIfFast(velocity.x, velocity.y);
+    }
 
     public void setVelocity(Vector2 velocity) {
         this.velocity = new Vector2(velocity);
+        wakeIfFast(velocity.x, velocity.y);
     }
     
     public void setVelocity(float x, float y) {
         this.velocity = new Vector2(x, y);
+        wakeIfFast(x, y);
     }
     
     public void setAcceleration(Vector2 acceleration) {
@@ -71,6 +87,7 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     
     public void addVelocity(Vector2 delta) {
         this.velocity = velocity.add(delta);
+        wakeIfMoving(delta.x, delta.y);
     }
     
     public void setGravity(Vector2 gravity) {
@@ -79,6 +96,80 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     
     public void setUseGravity(boolean useGravity) {
         this.useGravity = useGravity;
+        if (useGravity) wakeUp();
+    }
+
+    /**
+     * 唤醒刚体：重新参与积分、边界检测和宽相位
+     */
+    public void wakeUp() {
+        sleeping = false;
+        sleepTimer = 0f;
+    }
+
+    /**
+     * 强制休眠：清零速度和加速度
+     */
+    public void sleep() {
+        if (!allowSleep) return;
+        sleeping = true;
+        sleepTimer = 0f;
+        velocity = new Vector2();
+        acceleration = new Vector2();
+    }
+
+    /**
+     * 由 PhysicsSystem 在每次积分后调用：速度持续低于阈值则进入休眠
+     * @return 本次调用是否使刚体进入休眠
+     */
+    public boolean updateSleepState(float deltaTime) {
+        if (sleeping || !allowSleep || useGravity) return false;
+        float threshold = GameConfig.PHYSICS_SLEEP_VELOCITY;
+        if (velocity.x * velocity.x + velocity.y * velocity.y > threshold * threshold) {
+            sleepTimer = 0f;
+            return false;
+        }
+        sleepTimer += deltaTime;
+        if (sleepTimer >= GameConfig.PHYSICS_SLEEP_TIME) {
+            sleep();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 位于休眠区块时累积子步，返回累计值（不超过 maxSteps）
+     */
+    public int deferSteps(int steps, int maxSteps) {
+        deferredSteps = Math.min(deferredSteps + steps, maxSteps);
+        return deferredSteps;
+    }
+
+    // 取出并清零累积的子步
+    public int takeDeferredSteps() {
+        int steps = deferredSteps;
+        deferredSteps = 0;
+        return steps;
+    }
+
+    // 速度超过休眠阈值时唤醒（设置零速度不会唤醒休眠刚体）
+    private void wakeIfFast(float vx, float vy) {
+        float threshold = GameConfig.PHYSICS_SLEEP_VELOCITY;
+        if (vx * vx + vy * vy > threshold * threshold) {
+            wakeUp();
+        }
+    }
+
+    // 任何非零的力或冲量都会唤醒
+    private void wakeIfMoving(float x, float y) {
+        if (x != 0 || y != 0) {
+            wakeUp();
+        }
+    }
+
+    public void setAllowSleep(boolean allowSleep) {
+        this.allowSleep = allowSleep;
+        if (!allowSleep) wakeUp();
     }
     
     public void setFriction(float friction) {
@@ -114,4 +205,12 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     public Vector2 getGravity() {
         return new Vector2(gravity);
     }
+
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    public boolean isAllowSleep() {
+        return allowSleep;
+    }
 }
@@ -1,5 +1,6 @@
 package com.gameengine.components;
 
+import com.gameengine.config.GameConfig;
 import com.gameengine.core.Component;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.math.Vector2;
@@ -84,6 +85,32 @@ public class RenderComponent extends Component<RenderComponent> {
         }
     }
     
+    @Override
+    public boolean getRenderBounds(float[] out) {
+        if (!visible || renderer == null) return false;
+        TransformComponent transform = owner.getComponent(TransformComponent.class);
+        if (transform == null) return false;
+
+        float x = transform.getX();
+        float y = transform.getY();
+        float x2 = x + size.x;
+        float y2 = y + size.y;
+        if (renderType == RenderType.LINE) {
+            // 线段有宽度，向外扩展半个线宽
+            float half = GameConfig.RENDER_LINE_WIDTH * 0.5f;
+            out[0] = Math.min(x, x2) - half;
+            out[1] = Math.min(y, y2) - half;
+            out[2] = Math.max(x, x2) + half;
+            out[3] = Math.max(y, y2) + half;
+        } else {
+            out[0] = x;
+            out[1] = y;
+            out[2] = x2;
+            out[3] = y2;
+        }
+        return true;
+    }
+
     public void setRenderer(IRenderer renderer) {
         this.renderer = renderer;
     }
@@ -5,6 +5,7 @@ import com.gameengine.core.Component;
 import com.gameengine.core.GameLogic;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.ParticleSystem;
+import com.gameengine.graphics.IRenderer;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
@@ -215,25 +216,22 @@ public class SkillComponent extends Component<SkillComponent> {
         // 更新近战攻击
         updateMeleeAttack(deltaTime);
 
-        // 更新近战粒子系统位置
-        if (meleeParticleSystem != null) {
-            TransformComponent transform = owner.getComponent(TransformComponent.class);
-            if (transform != null) {
-                meleeParticleSystem.setPosition(transform.getPosition());
-            }
-            meleeParticleSystem.update(deltaTime);
-        }
-
         // 更新子弹
         updateBullets(deltaTime);
     }
 
     @Override
     public void render() {
-        // 渲染近战粒子系统
+        // 近战粒子由场景的 ParticleManager 统一渲染
+    }
+
+    @Override
+    public void destroy() {
         if (meleeParticleSystem != null) {
-            meleeParticleSystem.render();
+            meleeParticleSystem.release();
+            meleeParticleSystem = null;
         }
+        super.destroy();
     }
 
     public void setScene(Scene scene){
@@ -260,8 +258,13 @@ public class SkillComponent extends Component<SkillComponent> {
         config.b = GameConfig.MELEE_PARTICLE_B;
         config.opacityMultiplier = GameConfig.MELEE_PARTICLE_OPACITY;
         config.minRenderSize = 1.0f;
+        config.turbulence = GameConfig.MELEE_PARTICLE_TURBULENCE;
+        config.priority = ParticleSystem.PRIORITY_HIGH;
 
-        return new ParticleSystem(scene.getEngine().getRenderer(), position, config);
+        // 绑定到玩家：发射位置跟随玩家，玩家销毁时自动释放
+        ParticleSystem emitter = scene.getParticleManager().createEmitter(position, config);
+        emitter.bindTo(owner);
+        return emitter;
     }
 
     /**
@@ -509,7 +512,7 @@ public class SkillComponent extends Component<SkillComponent> {
         if (transform == null || meleeParticleSystem == null) return;
 
         Vector2 playerPos = transform.getPosition();
-        Vector2 mousePos = inputManager.getMousePosition();
+        Vector2 mousePos = getMouseWorldPosition();
         Vector2 direction = mousePos.subtract(playerPos).normalize();
 
         // 使用GameConfig常量 - 扇形角度范围
@@ -556,7 +559,7 @@ public class SkillComponent extends Component<SkillComponent> {
         Vector2 playerPos = transform.getPosition();
 
         // 获取鼠标方向
-        Vector2 mousePos = inputManager.getMousePosition();
+        Vector2 mousePos = getMouseWorldPosition();
         Vector2 direction = mousePos.subtract(playerPos).normalize();
 
         // 使用GameConfig常量 - 扇形范围检测
@@ -590,6 +593,15 @@ public class SkillComponent extends Component<SkillComponent> {
         }
     }
 
+    /**
+     * 鼠标位置（屏幕坐标）经相机转换为世界坐标
+     */
+    private Vector2 getMouseWorldPosition() {
+        Vector2 mousePos = inputManager.getMousePosition();
+        IRenderer renderer = scene != null ? scene.getRenderer() : null;
+        return renderer != null ? renderer.getCamera().screenToWorld(mousePos) : mousePos;
+    }
+
     /**
      * 创建远程攻击 - 修复：改进子弹渲染和添加尾迹粒子
      */
@@ -598,7 +610,7 @@ public class SkillComponent extends Component<SkillComponent> {
         if (transform == null) return;
 
         Vector2 playerPos = transform.getPosition();
-        Vector2 mousePos = inputManager.getMousePosition();
+        Vector2 mousePos = getMouseWorldPosition();
         Vector2 direction = mousePos.subtract(playerPos).normalize();
 
         // 计算实际伤害和速度
@@ -640,7 +652,8 @@ public class SkillComponent extends Component<SkillComponent> {
                 trailConfig.b = 1.0f;
                 trailConfig.opacityMultiplier = 0.6f;
 
-                trailParticleSystem = new ParticleSystem(scene.getEngine().getRenderer(), position, trailConfig);
+                // 绑定到子弹：跟随子弹位置，子弹销毁后停止生成并自然消失
+                trailParticleSystem = scene.getParticleManager().createEmitter(this, trailConfig);
                 trailParticleSystem.setSpawnRate(0.02f);
             }
 
@@ -657,12 +670,6 @@ public class SkillComponent extends Component<SkillComponent> {
                     bulletTransform.setPosition(position);
                 }
 
-                // 更新尾迹粒子系统
-                if (trailParticleSystem != null) {
-                    trailParticleSystem.setPosition(position);
-                    trailParticleSystem.update(deltaTime);
-                }
-
                 // 检查超出射程
                 if (travelDistance >= skill.config.range) {
                     destroy();
@@ -687,20 +694,22 @@ public class SkillComponent extends Component<SkillComponent> {
                             startPos.x, startPos.y, position.x, position.y,
                             0.0f, 1.0f, 1.0f, 0.3f
                     );
-
-                    // 渲染尾迹粒子
-                    if (trailParticleSystem != null) {
-                        trailParticleSystem.render();
-                    }
                 }
             }
 
+            @Override
+            public boolean getRenderBounds(float[] out) {
+                // 子弹方块加上从起点到当前位置的弹道线
+                out[0] = Math.min(startPos.x, position.x) - 3;
+                out[1] = Math.min(startPos.y, position.y) - 3;
+                out[2] = Math.max(startPos.x, position.x) + 3;
+                out[3] = Math.max(startPos.y, position.y) + 3;
+                return true;
+            }
+
             @Override
             public void destroy() {
-                // 清理粒子系统
-                if (trailParticleSystem != null) {
-                    trailParticleSystem.clear();
-                }
+                trailParticleSystem = null;
                 activeBullets.remove(this);
                 super.destroy();
             }
@@ -828,6 +837,15 @@ public class SkillComponent extends Component<SkillComponent> {
                     );
                 }
             }
+
+            @Override
+            public boolean getRenderBounds(float[] out) {
+                out[0] = playerPos.x - 50;
+                out[1] = playerPos.y - 50;
+                out[2] = playerPos.x + 50;
+                out[3] = playerPos.y + 50;
+                return true;
+            }
         };
 
         scene.addGameObject(dodgeEffect);
@@ -851,37 +869,12 @@ public class SkillComponent extends Component<SkillComponent> {
             config.r = r;
             config.g = g;
             config.b = b;
+            config.priority = ParticleSystem.PRIORITY_HIGH;
 
-            ParticleSystem hitParticles = new ParticleSystem(scene.getEngine().getRenderer(), position, config);
+            ParticleSystem hitParticles = scene.getParticleManager().createEmitter(position, config);
             hitParticles.burst(GameConfig.HIT_EFFECT_PARTICLES);
-
-            // 创建临时对象来管理粒子
-            GameObject hitEffect = new GameObject("HitEffect") {
-                private ParticleSystem particles = hitParticles;
-                private float lifetime = GameConfig.HIT_EFFECT_LIFE_MAX;
-
-                @Override
-                public void update(float deltaTime) {
-                    particles.update(deltaTime);
-                    lifetime -= deltaTime;
-                    if (lifetime <= 0) {
-                        destroy();
-                    }
-                }
-
-                @Override
-                public void render() {
-                    particles.render();
-                }
-
-                @Override
-                public void destroy() {
-                    particles.clear();
-                    super.destroy();
-                }
-            };
-
-            scene.addGameObject(hitEffect);
+            // 持续发射到最长粒子寿命后自动释放
+            hitParticles.setDuration(GameConfig.HIT_EFFECT_LIFE_MAX);
         }
     }
 
@@ -64,6 +64,15 @@ public class TransformComponent extends Component<TransformComponent> {
     public Vector2 getPosition() {
         return new Vector2(position);
     }
+
+    // 不复制 Vector2 的坐标读取，用于每帧大量调用的场合
+    public float getX() {
+        return position.x;
+    }
+
+    public float getY() {
+        return position.y;
+    }
     
     public void setPosition(Vector2 position) {
         this.position = new Vector2(position);
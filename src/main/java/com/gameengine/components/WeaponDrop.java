@@ -11,6 +11,7 @@ import java.util.Random;
  * 武器掉落组件：管理葫芦籽武器的掉落和拾取
  */
 public class WeaponDrop extends Component<WeaponDrop> {
+    private static final float DROP_SIZE = 20f;  // 掉落物方块边长
 
     private WeaponComponent.HuluSeed seed;
     private Scene scene;
@@ -55,11 +56,6 @@ public class WeaponDrop extends Component<WeaponDrop> {
 
         // 检查玩家是否在拾取范围内
         checkPlayerPickup();
-
-        // 更新粒子系统
-        if (particleSystem != null) {
-            particleSystem.update(deltaTime);
-        }
     }
 
     @Override
@@ -71,15 +67,21 @@ public class WeaponDrop extends Component<WeaponDrop> {
         // 渲染掉落物（彩色矩形）
         renderWeaponDrop(position);
 
-        // 渲染粒子系统
-        if (particleSystem != null) {
-            particleSystem.render();
-        }
-
         // 渲染拾取范围提示（调试用）
         // renderPickupRadius(position);
     }
 
+    @Override
+    public boolean getRenderBounds(float[] out) {
+        if (pickedUp || transform == null) return false;
+        float half = DROP_SIZE / 2;
+        out[0] = transform.getX() - half;
+        out[1] = transform.getY() - half;
+        out[2] = transform.getX() + half;
+        out[3] = transform.getY() + half;
+        return true;
+    }
+
     /**
      * 创建粒子系统
      */
@@ -116,7 +118,8 @@ public class WeaponDrop extends Component<WeaponDrop> {
         config.opacityMultiplier = 0.8f;
 
         Vector2 position = transform != null ? transform.getPosition() : new Vector2(0, 0);
-        particleSystem = new ParticleSystem(scene.getEngine().getRenderer(), position, config);
+        particleSystem = scene.getParticleManager().createEmitter(position, config);
+        particleSystem.bindTo(owner);
         particleSystem.setActive(true);
     }
 
@@ -133,11 +136,6 @@ public class WeaponDrop extends Component<WeaponDrop> {
         );
 
         transform.setPosition(newPosition);
-
-        // 更新粒子系统位置
-        if (particleSystem != null) {
-            particleSystem.setPosition(newPosition);
-        }
     }
 
     /**
@@ -179,6 +177,7 @@ public class WeaponDrop extends Component<WeaponDrop> {
         if (weaponComponent != null) {
             weaponComponent.pickUpHuluSeed(seed);
             pickedUp = true;
+            releaseParticleSystem();
 
             // 创建拾取特效
             createPickupEffect();
@@ -227,36 +226,9 @@ public class WeaponDrop extends Component<WeaponDrop> {
                 break;
         }
 
-        ParticleSystem explosion = new ParticleSystem(scene.getEngine().getRenderer(), position, explosionConfig);
+        ParticleSystem explosion = scene.getParticleManager().createEmitter(position, explosionConfig);
         explosion.burst(20);
-
-        // 创建临时对象管理爆炸粒子
-        GameObject explosionEffect = new GameObject("PickupExplosion") {
-            private ParticleSystem particles = explosion;
-            private float lifetime = 1.0f;
-
-            @Override
-            public void update(float deltaTime) {
-                particles.update(deltaTime);
-                lifetime -= deltaTime;
-                if (lifetime <= 0) {
-                    destroy();
-                }
-            }
-
-            @Override
-            public void render() {
-                particles.render();
-            }
-
-            @Override
-            public void destroy() {
-                particles.clear();
-                super.destroy();
-            }
-        };
-
-        scene.addGameObject(explosionEffect);
+        explosion.release();
     }
 
     /**
@@ -265,7 +237,7 @@ public class WeaponDrop extends Component<WeaponDrop> {
     private void renderWeaponDrop(Vector2 position) {
         if (scene == null || scene.getEngine() == null) return;
 
-        float size = 20f;
+        float size = DROP_SIZE;
 
         // 根据葫芦籽类型设置颜色
         float r, g, b;
@@ -327,10 +299,16 @@ public class WeaponDrop extends Component<WeaponDrop> {
      */
     @Override
     public void destroy() {
+        releaseParticleSystem();
+        super.destroy();
+    }
+
+    // 释放粒子发射器，已有粒子自然消失
+    private void releaseParticleSystem() {
         if (particleSystem != null) {
-            particleSystem.clear();
+            particleSystem.release();
+            particleSystem = null;
         }
-        super.destroy();
     }
 
     // Getters
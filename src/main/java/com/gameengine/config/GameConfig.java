@@ -11,11 +11,18 @@ public final class GameConfig {
     public static final int WINDOW_HEIGHT = 1080;
     public static final String GAME_TITLE = "葫芦娃大战妖精";
     
+    // 世界尺寸（大于窗口，由相机滚动显示）
+    public static final int WORLD_WIDTH = WINDOW_WIDTH * 3;
+    public static final int WORLD_HEIGHT = WINDOW_HEIGHT * 3;
+    public static final float WORLD_CHUNK_SIZE = 512f; // 世界分块尺寸
+    public static final int WORLD_ACTIVE_CHUNK_MARGIN = 1; // 视口和玩家周围额外的全频率模拟区块数
+    public static final int WORLD_DORMANT_TICK_INTERVAL = 4; // 休眠区块每隔多少帧模拟一次
+
     // 游戏边界
     public static final int GAME_BOUNDS_LEFT = 0;
     public static final int GAME_BOUNDS_TOP = 0;
-    public static final int GAME_BOUNDS_RIGHT = WINDOW_WIDTH;
-    public static final int GAME_BOUNDS_BOTTOM = WINDOW_HEIGHT;
+    public static final int GAME_BOUNDS_RIGHT = WORLD_WIDTH;
+    public static final int GAME_BOUNDS_BOTTOM = WORLD_HEIGHT;
     
     // UI设置
     public static final int SKILL_BAR_Y = WINDOW_HEIGHT - 80;
@@ -43,6 +50,13 @@ public final class GameConfig {
     public static final int ENEMY_BASE_COUNT = 5; // 基础敌人数量
     public static final int ENEMY_COUNT_GROWTH = 2; // 每波敌人数量增长
     public static final float WAVE_INTERVAL = 30f; // 波次间隔时间（秒）
+
+    // 敌人生成配置
+    public static final int ENEMY_INITIAL_COUNT = 30; // 开局敌人数量
+    public static final int ENEMY_SPAWN_BUDGET = 4; // 每帧最多生成的敌人数量
+    public static final int ENEMY_MAX_ALIVE = 300; // 同时存活的敌人上限
+    public static final float ENEMY_SPAWN_MIN_DISTANCE = 500f; // 生成圆环内径（距玩家）
+    public static final float ENEMY_SPAWN_MAX_DISTANCE = 1200f; // 生成圆环外径
     
     // 伤害配置
     public static final float PLAYER_COLLISION_DAMAGE = 10f; // 玩家碰撞伤害
@@ -97,6 +111,18 @@ public final class GameConfig {
     public static final float MELEE_PARTICLE_B = 0.0f; // 橙色 - 蓝色分量
     public static final float MELEE_PARTICLE_OPACITY = 0.8f;
     public static final int MELEE_PARTICLES_PER_FRAME = 5;
+    public static final float MELEE_PARTICLE_TURBULENCE = 120f;  // 近战火焰的随机扰动强度
+    public static final int PARTICLE_POOL_CAPACITY = 16384; // 场景共享粒子池容量
+    public static final int PARTICLE_CHUNK_SIZE = 1024;     // 粒子更新的固定分块大小
+    public static final int PARTICLE_PARALLEL_THRESHOLD = 4096; // 存活粒子超过该数量时多线程更新
+    public static final long PARTICLE_SEED = 0L;                // 粒子随机种子（0 表示每局随机选取）
+    public static final float PARTICLE_STATS_INTERVAL = 10f;    // 粒子和渲染统计输出间隔（秒）
+    public static final boolean STATS_LOGGING = false;          // 定期输出统计（也可用 -Dgameengine.logStats=true 开启）
+    public static final int PARTICLE_BUDGET = 8000;             // 全局粒子预算（运行时可通过 ParticleManager.setBudget 调整）
+    public static final float PARTICLE_LOW_PRIORITY_SHARE = 0.5f;       // 低优先级发射器最多占用的预算比例
+    public static final float PARTICLE_NORMAL_PRIORITY_SHARE = 0.8f;    // 普通优先级发射器最多占用的预算比例
+    public static final float PARTICLE_LOD_START = 0.5f;        // 粒子数超过预算的该比例后开始 LOD 剔除
+    public static final float PARTICLE_LOD_MAX_SIGNIFICANCE = 1.5f;     // 满预算时剔除显著度（尺寸×透明度）低于该值的粒子
 
     // 命中效果配置
     public static final int HIT_EFFECT_PARTICLES = 8;
@@ -111,6 +137,59 @@ public final class GameConfig {
     public static final float BULLET_COLLISION_RADIUS = 15f;
     public static final float PLAYER_COLLISION_RADIUS = 30f;
 
+    // 物理步进配置
+    public static final float PHYSICS_TICK_RATE = 120f; // 物理模拟频率（Hz），与渲染帧率无关
+    public static final int PHYSICS_MAX_SUBSTEPS = 8; // 每帧最多子步数，超出的积压时间被丢弃
+    public static final float PHYSICS_REFERENCE_RATE = 60f; // 摩擦系数按此帧率定义
+
+    // 物理休眠配置
+    public static final float PHYSICS_SLEEP_VELOCITY = 5f; // 低于该速度开始累计休眠时间
+    public static final float PHYSICS_SLEEP_TIME = 0.5f; // 持续低速多久后进入休眠（秒）
+    public static final float PHYSICS_CONTACT_RADIUS = 20f; // 运动刚体进入该半径时唤醒休眠刚体
+
+    // AI 避障配置
+    public static final float AI_AVOIDANCE_RADIUS = 80f; // 相互排斥的距离，同时作为邻居网格的单元尺寸
+    public static final float AI_AVOIDANCE_STRENGTH = 50f; // 排斥力上限
+    public static final float AI_MAX_SPEED = 150f;
+    public static final float FLOW_FIELD_CELL_SIZE = 40f; // 流场单元尺寸
+    public static final boolean AI_CROWD_SIMULATION = false; // 是否使用 ORCA 人群避障代替排斥力
+    public static final float AI_RVO_RADIUS = 12f; // ORCA 个体半径
+    public static final int AI_RVO_MAX_NEIGHBORS = 10; // ORCA 参与约束的最近邻居数
+    public static final float AI_RVO_TIME_HORIZON = 1.0f; // ORCA 预测时间（秒）
+
+    // 效用 AI 配置
+    public static final float AI_UTILITY_RANGE = 800f; // 与玩家距离的归一化范围
+    public static final float AI_DROP_SEEK_RADIUS = 400f; // 搜索武器掉落的半径
+    public static final float AI_CROWD_RADIUS = 150f; // 统计玩家周围拥挤程度的半径
+    public static final int AI_CROWD_LIMIT = 8; // 玩家周围达到该数量视为完全拥挤
+    public static final float AI_FLANK_DISTANCE = 160f; // 包抄时与玩家保持的距离
+    public static final float AI_FLANK_ANGLE = 70f; // 包抄点相对接近方向的偏转角（度）
+
+    // AI 细节层级配置
+    public static final float AI_LOD_NEAR_DISTANCE = 600f; // 该距离内（或在视口内）的 AI 每帧更新
+    public static final float AI_LOD_MID_DISTANCE = 1400f; // 该距离内的 AI 每隔若干帧更新
+    public static final int AI_LOD_MID_INTERVAL = 3;
+    public static final int AI_LOD_FAR_BUDGET = 32; // 每帧最多更新的远处 AI 数量
+
+    // 渲染配置
+    public static final int RENDER_BATCH_VERTICES = 6 * 8192; // 批处理缓冲容量（顶点数），写满时提交一次
+    public static final float RENDER_LINE_WIDTH = 2.5f; // 线段宽度（像素）
+    public static final int RENDER_CIRCLE_DISC_SEGMENTS = 32; // 分段数不少于此值的圆用圆盘纹理绘制（0 表示总是展开成三角形）
+    public static final int RENDER_GLYPH_ATLAS_SIZE = 1024; // 字形图集纹理边长（像素）
+    public static final int RENDER_TEXT_CACHE_SIZE = 256; // 文字排版缓存条目上限，超出时清空
+    public static final boolean RENDER_GL_DEBUG = false; // GL 调试模式（也可用 -Dgameengine.glDebug=true 开启）
+    public static final boolean RENDER_THREADED = false; // GL 工作放到独立渲染线程（也可用 -Dgameengine.renderThread=true 开启）
+    public static final int RENDER_QUEUE_FRAMES = 2; // 等待渲染线程提交的最大帧数，超出时丢弃最旧的帧
+    public static final int INPUT_QUEUE_CAPACITY = 1024; // 输入事件队列容量
+    public static final boolean RENDER_CULLING = true; // 跳过包围盒不在视口内的对象
+    public static final float RENDER_CULL_MARGIN = 32f; // 视口向外扩展的距离（像素），避免边缘对象闪烁
+
+    // 软件渲染配置
+    public static final int SOFTWARE_TILE_SIZE = 64; // 光栅化图块边长（像素），每个图块由一个线程填充
+    public static final int SOFTWARE_SCREENSHOT_INTERVAL = 0; // 每隔多少帧自动保存截图（0 表示不保存）
+    public static final String SOFTWARE_SCREENSHOT_DIR = "screenshots"; // 截图保存目录
+    public static final int SOFTWARE_REPLAY_FRAMES = 600; // 软件渲染回放的最大帧数，到达后退出
+
     // 其他配置
     public static final float WEAPON_PICKUP_RANGE = 30f;
     public static final float WEAPON_MAX_RANGE = (float) Math.hypot(WINDOW_WIDTH, WINDOW_HEIGHT);
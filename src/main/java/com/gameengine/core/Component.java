@@ -16,6 +16,14 @@ public abstract class Component<T extends Component<T>> {
     }
     
     public abstract void render();
+
+    /**
+     * 渲染包围盒：把世界坐标 minX, minY, maxX, maxY 写入 out 并返回 true；
+     * 不绘制或范围未知时返回 false（默认）
+     */
+    public boolean getRenderBounds(float[] out) {
+        return false;
+    }
     
     public void destroy() {
         this.enabled = false;
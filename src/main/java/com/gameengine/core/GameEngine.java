@@ -15,8 +15,11 @@ public class GameEngine {
     private InputManager inputManager;
     private Scene currentScene;
     private PhysicsSystem physicsSystem;
+    private float physicsTickRate = com.gameengine.config.GameConfig.PHYSICS_TICK_RATE; // 物理频率
+    private int physicsMaxSubsteps = com.gameengine.config.GameConfig.PHYSICS_MAX_SUBSTEPS;
     private boolean running;
     private float targetFPS;    // 目标帧率
+    private boolean offline;    // 离线模式：每帧按 1/targetFPS 推进，不按实时节流
     private float deltaTime;
     private long lastTime;
     @SuppressWarnings("unused")
@@ -62,7 +65,7 @@ public class GameEngine {
             if (currentScene.getName().equals("MainMenu")) {
                 physicsSystem = null;
             } else {
-                physicsSystem = new PhysicsSystem(currentScene, renderer.getWidth(), renderer.getHeight());
+                physicsSystem = createPhysicsSystem(currentScene);
             }
             
         }
@@ -74,8 +77,8 @@ public class GameEngine {
         while (running) {
             long currentTime = System.nanoTime();
 
-            // 基于目标FPS进行状态更新
-            if (currentTime - lastFrameTime >= frameTimeNanos) {
+            // 基于目标FPS进行状态更新（离线模式每次循环都推进一帧）
+            if (offline || currentTime - lastFrameTime >= frameTimeNanos) {
                 update();
                 if (running) {
                     render();
@@ -90,6 +93,8 @@ public class GameEngine {
                 running = false;
             }
 
+            if (offline) continue;
+
             // 让出CPU，避免过度占用
             try {
                 Thread.sleep(1);
@@ -105,7 +110,7 @@ public class GameEngine {
     private void update() {
         // 计算帧间隔时间
         long currentTime = System.nanoTime();
-        deltaTime = (currentTime - lastTime) / 1_000_000_000.0f;
+        deltaTime = offline ? 1.0f / targetFPS : (currentTime - lastTime) / 1_000_000_000.0f;
         lastTime = currentTime;
         
         renderer.pollEvents();
@@ -174,12 +179,40 @@ public class GameEngine {
             if (running) {
                 scene.initialize();
                 if (!scene.getName().equals("MainMenu") && !scene.getName().equals("Replay")) {
-                    physicsSystem = new PhysicsSystem(scene, renderer.getWidth(), renderer.getHeight());
+                    physicsSystem = createPhysicsSystem(scene);
                 }
             }
         }
     }
     
+    private PhysicsSystem createPhysicsSystem(Scene scene) {
+        PhysicsSystem system = new PhysicsSystem(scene, (int) scene.getWorldWidth(), (int) scene.getWorldHeight());
+        system.setTickRate(physicsTickRate);
+        system.setMaxSubsteps(physicsMaxSubsteps);
+        return system;
+    }
+
+    /**
+     * 设置物理模拟频率（如渲染60帧时物理跑120Hz，或服务器过载时降到30Hz）
+     */
+    public void setPhysicsTickRate(float hz) {
+        this.physicsTickRate = hz;
+        if (physicsSystem != null) {
+            physicsSystem.setTickRate(hz);
+        }
+    }
+
+    public void setPhysicsMaxSubsteps(int maxSubsteps) {
+        this.physicsMaxSubsteps = maxSubsteps;
+        if (physicsSystem != null) {
+            physicsSystem.setMaxSubsteps(maxSubsteps);
+        }
+    }
+
+    public PhysicsSystem getPhysicsSystem() {
+        return physicsSystem;
+    }
+
     public Scene getCurrentScene() {
         return currentScene;
     }
@@ -189,7 +222,7 @@ public class GameEngine {
     }
 
     /**
-     * 清理资源：停止录制、清理物理系统、场景和渲染器
+     * 清理资源：停止录制、清理物理系统、场景和渲染器，关闭共用工作线程组
      */
     public void cleanup() {
         if (recordingService != null && recordingService.isRecording()) {
@@ -202,6 +235,7 @@ public class GameEngine {
             currentScene.clear();
         }
         renderer.cleanup();
+        WorkerTeam.shutdownShared();
     }
 
 
@@ -250,6 +284,17 @@ public class GameEngine {
     public float getTargetFPS() {
         return targetFPS;
     }
+
+    /**
+     * 离线模式：不等待实时，每帧固定推进 1/targetFPS 秒，用于无窗口渲染回放和截图
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
     
     public boolean isRunning() {
         return running;
@@ -1,22 +1,21 @@
 package com.gameengine.core;
 
+import com.gameengine.ai.FlowField;
+import com.gameengine.ai.RVOSolver;
+import com.gameengine.ai.UtilityBrain;
+import com.gameengine.components.AIComponent;
 import com.gameengine.components.HealthComponent;
 import com.gameengine.components.PhysicsComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.config.GameConfig;
+import com.gameengine.graphics.Camera;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -29,33 +28,64 @@ public class GameLogic {
     private Random random;
     private boolean gameOver;
     private GameEngine gameEngine;
-    private Map<GameObject, Vector2> aiTargetVelocities;    //AI 目标速度
-    private Map<GameObject, Float> aiTargetUpdateTimers;    //AI 目标更新计时器
-    private ExecutorService avoidanceExecutor;  // AI 避障逻辑线程池
+    private int aiTick;     // AI 更新计数，用于错开中距离 AI 的更新
+
+    // AI 细节层级调度
+    private final List<AIComponent> farAgents = new ArrayList<>();
+    private int farCursor;      // 远处 AI 的轮转位置
+    private int nearAgentCount;
+    private int midAgentCount;
+    private int thinkingAgentCount; // 本帧更新转向的 AI 数量
+
+    private FlowField flowField;    // 所有 AI 共享的朝向玩家的流场
+
+    // 效用 AI：决策输入（结构数组）和期望方向
+    private final UtilityBrain brain = UtilityBrain.createDefault();
+    private final SpatialGrid dropGrid = new SpatialGrid(GameConfig.AI_DROP_SEEK_RADIUS);
+    private float[] dropX = new float[16];
+    private float[] dropY = new float[16];
+    private int dropCount;
+    private int crowdCount;     // 玩家周围 AI_CROWD_RADIUS 内的 AI 数量
+    private float[] thinkX = new float[64];         // 本帧更新的 AI 的位置
+    private float[] thinkY = new float[64];
+    private int[] thinkTickCounts = new int[64];
+    private int[] thinkSide = new int[64];          // 包抄方向（±1）
+    private PhysicsComponent[] thinkBodies = new PhysicsComponent[64];
+    private AIComponent[] thinkAgents = new AIComponent[64];
+    private float[] desiredX = new float[64];       // 写缓冲：单位期望方向
+    private float[] desiredY = new float[64];
+    private boolean[] desiredStop = new boolean[64];
+
+    // AI 避障：邻居网格、只读快照和写缓冲
+    private static final int AVOIDANCE_CANDIDATES = 512;  // 单次邻居查询的候选上限
+    private static final int AVOIDANCE_SERIAL_THRESHOLD = 64; // 低于该数量时在调用线程计算（结果相同）
+    private final SpatialGrid avoidanceGrid = new SpatialGrid(GameConfig.AI_AVOIDANCE_RADIUS);
+    private final ThreadLocal<int[]> candidateBuffers = ThreadLocal.withInitial(() -> new int[AVOIDANCE_CANDIDATES]);
+    private final ThreadLocal<float[]> directionBuffers = ThreadLocal.withInitial(() -> new float[2]);  // 流场插值结果
+    private float[] avoidanceX = new float[64];     // 快照：位置
+    private float[] avoidanceY = new float[64];
+    private float[] avoidanceVx = new float[64];    // 快照：速度
+    private float[] avoidanceVy = new float[64];
+    private int[] avoidanceTicks = new int[64];     // 本帧更新覆盖的帧数，0 表示本帧不更新
+    private PhysicsComponent[] avoidanceBodies = new PhysicsComponent[64];
+    private float[] steerVx = new float[64];        // 写缓冲：混合后的速度
+    private float[] steerVy = new float[64];
+    private boolean[] steerChanged = new boolean[64];
+
+    // 人群模式：ORCA 求解器
+    private boolean crowdSimulation = GameConfig.AI_CROWD_SIMULATION;
+    private RVOSolver rvoSolver;
+    private float[] crowdTimeSteps = new float[64];     // 每个个体本帧的求解步长，0 表示不求解
 
     public GameLogic(Scene scene) {
         this.scene = scene;
         this.inputManager = InputManager.getInstance();
         this.random = new Random();
         this.gameOver = false;
-        this.aiTargetVelocities = new HashMap<>();
-        this.aiTargetUpdateTimers = new HashMap<>();
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        this.avoidanceExecutor = Executors.newFixedThreadPool(threadCount);
     }
 
+    // 工作线程组为引擎共用，由 GameEngine 退出时关闭
     public void cleanup() {
-        if (avoidanceExecutor != null && !avoidanceExecutor.isShutdown()) {
-            avoidanceExecutor.shutdown();
-            try {
-                if (!avoidanceExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
-                    avoidanceExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                avoidanceExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
     }
 
     public void setGameEngine(GameEngine engine) {
@@ -119,16 +149,125 @@ public class GameLogic {
         }
 
         Vector2 pos = transform.getPosition();
-        int screenW = gameEngine != null && gameEngine.getRenderer() != null ? gameEngine.getRenderer().getWidth() : 1920;
-        int screenH = gameEngine != null && gameEngine.getRenderer() != null ? gameEngine.getRenderer().getHeight() : 1080;
+        float worldW = scene.getWorldWidth();
+        float worldH = scene.getWorldHeight();
         if (pos.x < 0) pos.x = 0;
         if (pos.y < 0) pos.y = 0;
-        if (pos.x > screenW - 20) pos.x = screenW - 20;
-        if (pos.y > screenH - 20) pos.y = screenH - 20;
+        if (pos.x > worldW - 20) pos.x = worldW - 20;
+        if (pos.y > worldH - 20) pos.y = worldH - 20;
         transform.setPosition(pos);
     }
 
-    // 处理AI移动：朝向玩家移动+避障逻辑
+    /**
+     * 玩家所在单元变化时更新共享流场（世界尺寸变化时重建）。
+     * 没有阻挡单元时 AI 总是直线追击、不读取流场，此时跳过积分场和方向场的计算
+     */
+    private FlowField updateFlowField(Vector2 playerPos) {
+        float worldW = scene.getWorldWidth();
+        float worldH = scene.getWorldHeight();
+        float cellSize = GameConfig.FLOW_FIELD_CELL_SIZE;
+        if (flowField == null
+                || flowField.getColumns() != (int) Math.ceil(worldW / cellSize)
+                || flowField.getRows() != (int) Math.ceil(worldH / cellSize)) {
+            flowField = new FlowField(worldW, worldH, cellSize);
+        }
+        if (flowField.hasObstacles()) {
+            flowField.update(playerPos.x, playerPos.y);
+        }
+        return flowField;
+    }
+
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * AI 细节层级调度：按与玩家的距离（以及是否在视口内）分层，决定本帧哪些 AI 更新转向。
+     * 近处每帧更新；中距离每 AI_LOD_MID_INTERVAL 帧按错开的帧更新；
+     * 远处在 AI_LOD_FAR_BUDGET 的预算内轮流更新。未更新的 AI 保持原速度，由物理系统外推。
+     */
+    private void scheduleAIUpdates(List<GameObject> aiPlayers, Vector2 playerPos) {
+        aiTick++;
+        float nearSq = GameConfig.AI_LOD_NEAR_DISTANCE * GameConfig.AI_LOD_NEAR_DISTANCE;
+        float midSq = GameConfig.AI_LOD_MID_DISTANCE * GameConfig.AI_LOD_MID_DISTANCE;
+        int midInterval = GameConfig.AI_LOD_MID_INTERVAL;
+        Camera camera = gameEngine != null && gameEngine.getRenderer() != null ? gameEngine.getRenderer().getCamera() : null;
+
+        farAgents.clear();
+        nearAgentCount = 0;
+        midAgentCount = 0;
+        thinkingAgentCount = 0;
+        for (GameObject aiPlayer : aiPlayers) {
+            AIComponent ai = aiPlayer.getComponent(AIComponent.class);
+            TransformComponent transform = aiPlayer.getComponent(TransformComponent.class);
+            if (ai == null || transform == null) continue;
+            ai.advanceTick();
+
+            Vector2 pos = transform.getPosition();
+            float dx = pos.x - playerPos.x;
+            float dy = pos.y - playerPos.y;
+            float distSq = dx * dx + dy * dy;
+            if (distSq < nearSq || (camera != null && camera.intersects(pos.x, pos.y, pos.x + 20, pos.y + 20))) {
+                ai.setLodTier(AIComponent.LodTier.NEAR);
+                ai.markDue();
+                nearAgentCount++;
+                thinkingAgentCount++;
+            } else if (distSq < midSq) {
+                ai.setLodTier(AIComponent.LodTier.MID);
+                if ((aiTick + ai.getStagger()) % midInterval == 0) {
+                    ai.markDue();
+                    thinkingAgentCount++;
+                }
+                midAgentCount++;
+            } else {
+                ai.setLodTier(AIComponent.LodTier.FAR);
+                farAgents.add(ai);
+            }
+        }
+
+        // 远处 AI 轮流更新
+        int farCount = farAgents.size();
+        if (farCount == 0) {
+            farCursor = 0;
+            return;
+        }
+        int budget = Math.min(GameConfig.AI_LOD_FAR_BUDGET, farCount);
+        if (farCursor >= farCount) farCursor = 0;
+        for (int k = 0; k < budget; k++) {
+            farAgents.get((farCursor + k) % farCount).markDue();
+        }
+        farCursor = (farCursor + budget) % farCount;
+        thinkingAgentCount += budget;
+    }
+
+    public int getNearAgentCount() {
+        return nearAgentCount;
+    }
+
+    public int getMidAgentCount() {
+        return midAgentCount;
+    }
+
+    public int getFarAgentCount() {
+        return farAgents.size();
+    }
+
+    public int getThinkingAgentCount() {
+        return thinkingAgentCount;
+    }
+
+    // 本帧需要更新转向的 AI 覆盖的帧数，本帧不更新时返回 0（没有 AIComponent 的对象每帧更新）
+    private static int thinkTicks(GameObject aiPlayer) {
+        AIComponent ai = aiPlayer.getComponent(AIComponent.class);
+        if (ai == null) return 1;
+        return ai.isDue() ? ai.getThinkTicks() : 0;
+    }
+
+    /**
+     * 处理AI移动：效用 AI 为本帧需要更新的 AI 选择行为（追击、包抄、逃跑、拾取掉落），
+     * 再按行为计算期望方向。输入收集为结构数组后在工作线程组上批量评估，
+     * 工作线程只写各自下标的结果，汇合后由调用线程写回速度。
+     */
     public void handleAIPlayerMovement(float deltaTime) {
         if (gameOver) return;
 
@@ -141,142 +280,393 @@ public class GameLogic {
         if (playerTransform == null) return;
 
         Vector2 playerPos = playerTransform.getPosition();
-
-        for (GameObject aiPlayer : aiPlayers) {
-            PhysicsComponent physics = aiPlayer.getComponent(PhysicsComponent.class);
-            TransformComponent aiTransform = aiPlayer.getComponent(TransformComponent.class);
-
-            if (physics == null || aiTransform == null) continue;
-
-            // 计算朝向玩家的方向向量
-            Vector2 aiPos = aiTransform.getPosition();
-            Vector2 directionToPlayer = playerPos.subtract(aiPos);
-
+        FlowField field = updateFlowField(playerPos);
+        scheduleAIUpdates(aiPlayers, playerPos);
+        collectWeaponDrops();
+
+        int count = collectThinkingAgents(aiPlayers, playerPos);
+        if (count == 0) return;
+        float crowding = Math.min(1f, crowdCount / (float) GameConfig.AI_CROWD_LIMIT);
+        float playerX = playerPos.x;
+        float playerY = playerPos.y;
+        WorkerTeam.shared().run(count, AVOIDANCE_SERIAL_THRESHOLD, (start, end) -> decideMovement(start, end, playerX, playerY, crowding, field));
+
+        // 汇合之后写回行为和速度
+        float maxSpeed = GameConfig.AI_MAX_SPEED;
+        int[] actions = brain.getActions();
+        for (int i = 0; i < count; i++) {
+            if (thinkAgents[i] != null) {
+                thinkAgents[i].setAction(actions[i]);
+            }
+            PhysicsComponent physics = thinkBodies[i];
             // 如果距离很近，直接设置目标速度为0，避免抖动
-            if (directionToPlayer.magnitude() < 10f) {
-                Vector2 newVelocity = new Vector2(0, 0);
-                physics.setVelocity(newVelocity);
+            if (desiredStop[i]) {
+                physics.setVelocity(new Vector2(0, 0));
                 continue;
             }
 
-            // 归一化方向向量并乘以速度
-            Vector2 targetVelocity = directionToPlayer.normalize().multiply(150f);
-
-            // 平滑过渡到目标速度
+            // 平滑过渡到目标速度：每帧混合 10%，跳过的帧一并补上
+            int ticks = thinkTickCounts[i];
+            float lerpFactor = ticks == 1 ? 0.1f : 1f - (float) Math.pow(0.9, ticks);
             Vector2 currentVelocity = physics.getVelocity();
-            float lerpFactor = 0.1f;
-            Vector2 newVelocity = new Vector2(
-                    currentVelocity.x + (targetVelocity.x - currentVelocity.x) * lerpFactor,
-                    currentVelocity.y + (targetVelocity.y - currentVelocity.y) * lerpFactor
-            );
+            float vx = currentVelocity.x + (desiredX[i] * maxSpeed - currentVelocity.x) * lerpFactor;
+            float vy = currentVelocity.y + (desiredY[i] * maxSpeed - currentVelocity.y) * lerpFactor;
 
             // 限制最大速度
-            float maxSpeed = 150f;
-            if (newVelocity.magnitude() > maxSpeed) {
-                newVelocity = newVelocity.normalize().multiply(maxSpeed);
+            float speedSq = vx * vx + vy * vy;
+            if (speedSq > maxSpeed * maxSpeed) {
+                float clamp = maxSpeed / (float) Math.sqrt(speedSq);
+                vx *= clamp;
+                vy *= clamp;
             }
 
-            physics.setVelocity(newVelocity);
+            physics.setVelocity(new Vector2(vx, vy));
         }
     }
 
+    // 收集场景中的武器掉落位置并建立网格
+    private void collectWeaponDrops() {
+        dropCount = 0;
+        List<GameObject> objects = scene.getGameObjectsView();
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject obj = objects.get(i);
+            if (!obj.isActive() || !obj.getName().equals("WeaponDrop")) continue;
+            TransformComponent transform = obj.getComponent(TransformComponent.class);
+            if (transform == null) continue;
+            if (dropCount == dropX.length) {
+                dropX = java.util.Arrays.copyOf(dropX, dropCount * 2);
+                dropY = java.util.Arrays.copyOf(dropY, dropCount * 2);
+            }
+            dropX[dropCount] = transform.getX();
+            dropY[dropCount] = transform.getY();
+            dropCount++;
+        }
+        dropGrid.build(dropX, dropY, dropCount);
+    }
 
-    // 多线程处理AI避障
-    public void handleAIPlayerAvoidance(float deltaTime) {
-        if (gameOver) return;
-
-        List<GameObject> aiPlayers = getAIPlayers();
-        if (aiPlayers.isEmpty()) return;
+    // 收集本帧需要更新的 AI，同时统计玩家周围的 AI 数量
+    private int collectThinkingAgents(List<GameObject> aiPlayers, Vector2 playerPos) {
+        int n = aiPlayers.size();
+        brain.ensureCapacity(n);
+        if (thinkX.length < n) {
+            int cap = Math.max(n, thinkX.length * 2);
+            thinkX = new float[cap];
+            thinkY = new float[cap];
+            thinkTickCounts = new int[cap];
+            thinkSide = new int[cap];
+            thinkBodies = new PhysicsComponent[cap];
+            thinkAgents = new AIComponent[cap];
+            desiredX = new float[cap];
+            desiredY = new float[cap];
+            desiredStop = new boolean[cap];
+        }
+        float crowdRadiusSq = GameConfig.AI_CROWD_RADIUS * GameConfig.AI_CROWD_RADIUS;
+        float[] health = brain.getInput(UtilityBrain.INPUT_HEALTH);
+        int[] actions = brain.getActions();
+        crowdCount = 0;
+        int count = 0;
+        for (GameObject aiPlayer : aiPlayers) {
+            TransformComponent transform = aiPlayer.getComponent(TransformComponent.class);
+            PhysicsComponent physics = aiPlayer.getComponent(PhysicsComponent.class);
+            if (transform == null || physics == null) continue;
+            Vector2 pos = transform.getPosition();
+            float dx = pos.x - playerPos.x;
+            float dy = pos.y - playerPos.y;
+            if (dx * dx + dy * dy < crowdRadiusSq) {
+                crowdCount++;
+            }
 
-        if (aiPlayers.size() < 10) {
-            handleAIPlayerAvoidanceSerial(aiPlayers, deltaTime);
-        } else {
-            handleAIPlayerAvoidanceParallel(aiPlayers, deltaTime);
+            int ticks = thinkTicks(aiPlayer);
+            if (ticks == 0) continue;
+            AIComponent ai = aiPlayer.getComponent(AIComponent.class);
+            HealthComponent hp = aiPlayer.getComponent(HealthComponent.class);
+            thinkX[count] = pos.x;
+            thinkY[count] = pos.y;
+            thinkTickCounts[count] = ticks;
+            thinkSide[count] = ai != null && (ai.getStagger() & 1) == 1 ? -1 : 1;
+            thinkBodies[count] = physics;
+            thinkAgents[count] = ai;
+            health[count] = hp != null ? hp.getHealthPercentage() : 1f;
+            actions[count] = ai != null ? ai.getAction() : UtilityBrain.CHASE;
+            count++;
         }
+        java.util.Arrays.fill(thinkBodies, count, thinkBodies.length, null);
+        java.util.Arrays.fill(thinkAgents, count, thinkAgents.length, null);
+        return count;
     }
 
-    private void handleAIPlayerAvoidanceSerial(List<GameObject> aiPlayers, float deltaTime) {
-        for (int i = 0; i < aiPlayers.size(); i++) {
-            processAvoidanceForPlayer(aiPlayers, i, deltaTime);
+    // 计算 [start, end) 区间内 AI 的决策输入、行为和期望方向
+    private void decideMovement(int start, int end, float playerX, float playerY, float crowding, FlowField field) {
+        float[] playerDistance = brain.getInput(UtilityBrain.INPUT_PLAYER_DISTANCE);
+        float[] dropDistance = brain.getInput(UtilityBrain.INPUT_DROP_DISTANCE);
+        float[] crowd = brain.getInput(UtilityBrain.INPUT_CROWDING);
+        float invRange = 1f / GameConfig.AI_UTILITY_RANGE;
+        float seekRadius = GameConfig.AI_DROP_SEEK_RADIUS;
+        int[] candidates = candidateBuffers.get();
+
+        // 输入
+        for (int i = start; i < end; i++) {
+            float x = thinkX[i];
+            float y = thinkY[i];
+            float dx = playerX - x;
+            float dy = playerY - y;
+            playerDistance[i] = Math.min(1f, (float) Math.sqrt(dx * dx + dy * dy) * invRange);
+            crowd[i] = crowding;
+
+            float nearestSq = seekRadius * seekRadius;
+            int found = dropGrid.query(x, y, seekRadius, candidates);
+            for (int k = 0; k < found; k++) {
+                int d = candidates[k];
+                float ddx = dropX[d] - x;
+                float ddy = dropY[d] - y;
+                nearestSq = Math.min(nearestSq, ddx * ddx + ddy * ddy);
+            }
+            dropDistance[i] = (float) Math.sqrt(nearestSq) / seekRadius;
         }
-    }
 
-    private void handleAIPlayerAvoidanceParallel(List<GameObject> aiPlayers, float deltaTime) {
-        int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-        threadCount = Math.max(2, threadCount);
-        int batchSize = Math.max(1, aiPlayers.size() / threadCount + 1);
+        // 行为选择
+        brain.evaluate(start, end);
 
-        List<Future<?>> futures = new ArrayList<>();
+        // 期望方向
+        int[] actions = brain.getActions();
+        for (int i = start; i < end; i++) {
+            steer(i, actions[i], playerX, playerY, field, candidates);
+        }
+    }
 
-        for (int i = 0; i < aiPlayers.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, aiPlayers.size());
+    // 按行为计算第 i 个 AI 的单位期望方向
+    private void steer(int i, int action, float playerX, float playerY, FlowField field, int[] candidates) {
+        float x = thinkX[i];
+        float y = thinkY[i];
+        float toPlayerX = playerX - x;
+        float toPlayerY = playerY - y;
+        float distance = (float) Math.sqrt(toPlayerX * toPlayerX + toPlayerY * toPlayerY);
+        desiredStop[i] = false;
+
+        if (action == UtilityBrain.FLEE) {
+            if (distance > 0f) {
+                desiredX[i] = -toPlayerX / distance;
+                desiredY[i] = -toPlayerY / distance;
+            } else {
+                desiredX[i] = thinkSide[i];
+                desiredY[i] = 0f;
+            }
+            return;
+        }
 
-            Future<?> future = avoidanceExecutor.submit(() -> {
-                for (int j = start; j < end; j++) {
-                    processAvoidanceForPlayer(aiPlayers, j, deltaTime);
+        if (action == UtilityBrain.SEEK_DROP) {
+            float seekRadius = GameConfig.AI_DROP_SEEK_RADIUS;
+            int found = dropGrid.query(x, y, seekRadius, candidates);
+            float bestSq = seekRadius * seekRadius;
+            float targetX = 0f;
+            float targetY = 0f;
+            boolean hasTarget = false;
+            for (int k = 0; k < found; k++) {
+                int d = candidates[k];
+                float dx = dropX[d] - x;
+                float dy = dropY[d] - y;
+                float distSq = dx * dx + dy * dy;
+                if (distSq < bestSq) {
+                    bestSq = distSq;
+                    targetX = dx;
+                    targetY = dy;
+                    hasTarget = true;
                 }
-            });
-
-            futures.add(future);
+            }
+            if (hasTarget) {
+                // 到达掉落物后停下守着
+                float dropDistance = (float) Math.sqrt(bestSq);
+                desiredStop[i] = dropDistance < 10f;
+                if (!desiredStop[i]) {
+                    desiredX[i] = targetX / dropDistance;
+                    desiredY[i] = targetY / dropDistance;
+                }
+                return;
+            }
+            // 掉落物已被拾取，退回追击
         }
 
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (Exception e) {
-                e.printStackTrace();
+        if (action == UtilityBrain.FLANK && distance > 0f && distance < GameConfig.AI_FLANK_DISTANCE * 3) {
+            // 包抄点：把“玩家→AI”方向旋转 ±AI_FLANK_ANGLE 后放在 AI_FLANK_DISTANCE 处
+            float angle = (float) Math.toRadians(GameConfig.AI_FLANK_ANGLE) * thinkSide[i];
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            float ux = -toPlayerX / distance;
+            float uy = -toPlayerY / distance;
+            float flankX = playerX + (ux * cos - uy * sin) * GameConfig.AI_FLANK_DISTANCE;
+            float flankY = playerY + (ux * sin + uy * cos) * GameConfig.AI_FLANK_DISTANCE;
+            float dx = flankX - x;
+            float dy = flankY - y;
+            float flankDistance = (float) Math.sqrt(dx * dx + dy * dy);
+            if (flankDistance > 10f) {
+                desiredX[i] = dx / flankDistance;
+                desiredY[i] = dy / flankDistance;
+                return;
             }
+            // 已到包抄点，转为追击
         }
-    }
-
-    private void processAvoidanceForPlayer(List<GameObject> aiPlayers, int index, float deltaTime) {
-        GameObject aiPlayer1 = aiPlayers.get(index);
-        TransformComponent transform1 = aiPlayer1.getComponent(TransformComponent.class);
-        PhysicsComponent physics1 = aiPlayer1.getComponent(PhysicsComponent.class);
 
-        if (transform1 == null || physics1 == null) return;
+        // 追击：如果距离很近，停下避免抖动
+        if (distance < 10f) {
+            desiredStop[i] = true;
+            return;
+        }
+        // 视线通畅（包括没有任何阻挡）时直线追击；否则沿流场绕行，方向在相邻单元间插值
+        desiredX[i] = toPlayerX / distance;
+        desiredY[i] = toPlayerY / distance;
+        if (field.hasLineOfSight(x, y, playerX, playerY)) return;
+        int cell = field.cellIndex(x, y);
+        if (field.getCost(cell) <= 1 || field.getCost(cell) == FlowField.UNREACHABLE) return;
+        float[] direction = directionBuffers.get();
+        field.sampleDirection(x, y, direction);
+        float length = (float) Math.sqrt(direction[0] * direction[0] + direction[1] * direction[1]);
+        if (length > 1e-3f) {
+            desiredX[i] = direction[0] / length;
+            desiredY[i] = direction[1] / length;
+        }
+    }
 
-        Vector2 pos1 = transform1.getPosition();
-        Vector2 avoidance = new Vector2();
+    /**
+     * AI 避障：每帧用 AI 位置重建均匀网格，每个 AI 只检查周围 3x3 单元中的邻居，
+     * 开销随 AI 数量线性增长。每个 AI 累加所有邻居（j != i）的排斥力，因此作用是对称的。
+     * 转向采用双缓冲：先串行拍下位置和速度快照，工作线程只读快照、只写各自下标的结果缓冲，
+     * 线程组汇合后再由调用线程统一写回物理组件。结果与线程数和分块方式无关。
+     */
+    public void handleAIPlayerAvoidance(float deltaTime) {
+        if (gameOver) return;
 
-        for (int j = index + 1; j < aiPlayers.size(); j++) {
-            GameObject aiPlayer2 = aiPlayers.get(j);
-            TransformComponent transform2 = aiPlayer2.getComponent(TransformComponent.class);
+        List<GameObject> aiPlayers = getAIPlayers();
+        if (aiPlayers.isEmpty()) return;
 
-            if (transform2 == null) continue;
+        int count = collectAvoidanceAgents(aiPlayers);
+        if (count == 0) return;
+        avoidanceGrid.build(avoidanceX, avoidanceY, count);
 
-            Vector2 pos2 = transform2.getPosition();
-            float distance = pos1.distance(pos2);
+        if (crowdSimulation) {
+            solveCrowd(count, deltaTime);
+        } else {
+            WorkerTeam.shared().run(count, AVOIDANCE_SERIAL_THRESHOLD, (start, end) -> computeSeparation(start, end, deltaTime, candidateBuffers.get()));
+        }
 
-            if (distance < 80 && distance > 0) {
-                Vector2 direction = pos1.subtract(pos2).normalize();
-                float strength = (80 - distance) / 80.0f;
-                avoidance = avoidance.add(direction.multiply(strength * 50));
+        // 汇合之后写回：只有调用线程修改物理组件
+        for (int i = 0; i < count; i++) {
+            if (steerChanged[i]) {
+                avoidanceBodies[i].setVelocity(new Vector2(steerVx[i], steerVy[i]));
             }
         }
+    }
 
-        if (avoidance.magnitude() > 0) {
-            Vector2 currentVelocity = physics1.getVelocity();
-            float lerpFactor = 0.15f;
-            Vector2 avoidanceDirection = avoidance.normalize();
-            float avoidanceStrength = Math.min(avoidance.magnitude(), 50f);
+    /**
+     * 人群模式：以当前速度（已朝向目标）作为期望速度，用 ORCA 求出互不碰撞的速度
+     */
+    private void solveCrowd(int count, float deltaTime) {
+        if (rvoSolver == null) {
+            rvoSolver = new RVOSolver(GameConfig.AI_RVO_RADIUS, GameConfig.AI_AVOIDANCE_RADIUS,
+                    GameConfig.AI_RVO_MAX_NEIGHBORS, GameConfig.AI_RVO_TIME_HORIZON);
+        }
+        if (crowdTimeSteps.length < count) {
+            crowdTimeSteps = new float[avoidanceX.length];
+        }
+        for (int i = 0; i < count; i++) {
+            crowdTimeSteps[i] = avoidanceTicks[i] * deltaTime;
+            steerChanged[i] = avoidanceTicks[i] > 0;
+        }
+        rvoSolver.bind(avoidanceGrid, avoidanceX, avoidanceY, avoidanceVx, avoidanceVy, avoidanceVx, avoidanceVy, count);
+        float maxSpeed = GameConfig.AI_MAX_SPEED;
+        WorkerTeam.shared().run(count, AVOIDANCE_SERIAL_THRESHOLD, (start, end) -> rvoSolver.solveRange(start, end, crowdTimeSteps, maxSpeed, steerVx, steerVy));
+    }
 
-            Vector2 targetVelocity = currentVelocity.add(
-                    avoidanceDirection.multiply(avoidanceStrength * deltaTime * 10)
-            );
+    public void setCrowdSimulation(boolean crowdSimulation) {
+        this.crowdSimulation = crowdSimulation;
+    }
 
-            Vector2 newVelocity = new Vector2(
-                    currentVelocity.x + (targetVelocity.x - currentVelocity.x) * lerpFactor,
-                    currentVelocity.y + (targetVelocity.y - currentVelocity.y) * lerpFactor
-            );
+    public boolean isCrowdSimulation() {
+        return crowdSimulation;
+    }
+
+    // 把 AI 的位置、速度和物理组件收集到数组中，作为本帧避障的只读快照
+    private int collectAvoidanceAgents(List<GameObject> aiPlayers) {
+        int n = aiPlayers.size();
+        if (avoidanceX.length < n) {
+            int cap = Math.max(n, avoidanceX.length * 2);
+            avoidanceX = new float[cap];
+            avoidanceY = new float[cap];
+            avoidanceVx = new float[cap];
+            avoidanceVy = new float[cap];
+            avoidanceTicks = new int[cap];
+            avoidanceBodies = new PhysicsComponent[cap];
+            steerVx = new float[cap];
+            steerVy = new float[cap];
+            steerChanged = new boolean[cap];
+        }
+        int count = 0;
+        for (GameObject aiPlayer : aiPlayers) {
+            TransformComponent transform = aiPlayer.getComponent(TransformComponent.class);
+            PhysicsComponent physics = aiPlayer.getComponent(PhysicsComponent.class);
+            if (transform == null || physics == null) continue;
+            Vector2 pos = transform.getPosition();
+            Vector2 velocity = physics.getVelocity();
+            avoidanceX[count] = pos.x;
+            avoidanceY[count] = pos.y;
+            avoidanceVx[count] = velocity.x;
+            avoidanceVy[count] = velocity.y;
+            avoidanceTicks[count] = thinkTicks(aiPlayer);
+            avoidanceBodies[count] = physics;
+            count++;
+        }
+        // 清除上一帧残留的引用
+        java.util.Arrays.fill(avoidanceBodies, count, avoidanceBodies.length, null);
+        return count;
+    }
 
-            float maxSpeed = 150f;
-            if (newVelocity.magnitude() > maxSpeed) {
-                newVelocity = newVelocity.normalize().multiply(maxSpeed);
+    // 计算 [start, end) 区间内 AI 受到的排斥力，混合后的速度写入 steerVx/steerVy
+    private void computeSeparation(int start, int end, float deltaTime, int[] candidates) {
+        float radius = GameConfig.AI_AVOIDANCE_RADIUS;
+        float radiusSq = radius * radius;
+        float maxStrength = GameConfig.AI_AVOIDANCE_STRENGTH;
+        float maxSpeed = GameConfig.AI_MAX_SPEED;
+        float lerpFactor = 0.15f;
+
+        for (int i = start; i < end; i++) {
+            steerChanged[i] = false;
+            // 本帧不更新的 AI 只作为其他 AI 的邻居参与计算
+            int ticks = avoidanceTicks[i];
+            if (ticks == 0) continue;
+            float x = avoidanceX[i];
+            float y = avoidanceY[i];
+            float forceX = 0f;
+            float forceY = 0f;
+
+            int found = avoidanceGrid.query(x, y, radius, candidates);
+            for (int k = 0; k < found; k++) {
+                int j = candidates[k];
+                if (j == i) continue;
+                float dx = x - avoidanceX[j];
+                float dy = y - avoidanceY[j];
+                float distSq = dx * dx + dy * dy;
+                if (distSq >= radiusSq || distSq == 0f) continue;
+                float distance = (float) Math.sqrt(distSq);
+                float strength = (radius - distance) / radius * maxStrength;
+                forceX += dx / distance * strength;
+                forceY += dy / distance * strength;
             }
 
-            physics1.setVelocity(newVelocity);
+            float magnitude = (float) Math.sqrt(forceX * forceX + forceY * forceY);
+            if (magnitude == 0f) continue;
+
+            // 与原先一致：方向取合力方向，强度截断到上限，再按 lerpFactor 混合到当前速度
+            float scale = Math.min(magnitude, maxStrength) / magnitude * deltaTime * ticks * 10 * lerpFactor;
+            float vx = avoidanceVx[i] + forceX * scale;
+            float vy = avoidanceVy[i] + forceY * scale;
+            float speedSq = vx * vx + vy * vy;
+            if (speedSq > maxSpeed * maxSpeed) {
+                float clamp = maxSpeed / (float) Math.sqrt(speedSq);
+                vx *= clamp;
+                vy *= clamp;
+            }
+            steerVx[i] = vx;
+            steerVy[i] = vy;
+            steerChanged[i] = true;
         }
     }
 
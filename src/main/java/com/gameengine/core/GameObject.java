@@ -43,6 +43,38 @@ public class GameObject {
     
     public void initialize() {
     }
+
+    /**
+     * 渲染包围盒（世界坐标 minX, minY, maxX, maxY），默认合并各组件提供的包围盒。
+     * 返回 false 表示范围未知，对象总是渲染、不参与视口剔除；重写 render 的子类应同时重写此方法
+     */
+    public boolean getRenderBounds(float[] out) {
+        boolean found = false;
+        float minX = 0, minY = 0, maxX = 0, maxY = 0;
+        for (int i = 0; i < components.size(); i++) {
+            Component<?> component = components.get(i);
+            if (!component.isEnabled() || !component.getRenderBounds(out)) continue;
+            if (!found) {
+                minX = out[0];
+                minY = out[1];
+                maxX = out[2];
+                maxY = out[3];
+                found = true;
+            } else {
+                minX = Math.min(minX, out[0]);
+                minY = Math.min(minY, out[1]);
+                maxX = Math.max(maxX, out[2]);
+                maxY = Math.max(maxY, out[3]);
+            }
+        }
+        if (found) {
+            out[0] = minX;
+            out[1] = minY;
+            out[2] = maxX;
+            out[3] = maxY;
+        }
+        return found;
+    }
     
     public void destroy() {
         this.active = false;
@@ -0,0 +1,517 @@
+package com.gameengine.core;
+
+import com.gameengine.components.TransformComponent;
+import com.gameengine.config.GameConfig;
+import com.gameengine.graphics.Camera;
+import com.gameengine.graphics.IRenderer;
+import com.gameengine.math.Vector2;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * 粒子管理器：由场景持有，集中存放场景内所有发射器的粒子。
+ * 粒子以结构数组（SoA）存放在一个共享的固定容量池中，每个粒子记录所属发射器的槽位；
+ * 发射器（ParticleSystem）只是指向槽位的轻量句柄，只保存发射参数。
+ * 每帧一次批量更新所有粒子、一次批量提交所有粒子的绘制；
+ * 发射器 release 后停止生成，剩余粒子消失后自动释放槽位，句柄放回对象池复用；
+ * 绑定了游戏对象的发射器在对象失活时自动 release。
+ * 粒子按固定大小分块积分，存活粒子超过阈值时各块分派到工作线程组并行执行；
+ * 每块的随机扰动使用由（种子, 帧号, 块号）确定的独立随机序列，
+ * 因此同一种子下串行和并行、不同线程数的结果完全一致。
+ * 这只保证同一局内的执行方式不影响结果，不覆盖录像回放：回放只重放关键帧中的对象状态，不驱动发射器。
+ * 种子在创建时确定（GameConfig.PARTICLE_SEED，为 0 时随机选取）。
+ * 全局粒子预算按发射器优先级分级：低优先级只能占用预算的一部分，超出时新粒子被丢弃；
+ * 粒子数超过预算一定比例后，渲染时按显著度（尺寸×透明度，离视口中心越远越低）剔除细小、暗淡的粒子。
+ */
+public class ParticleManager {
+    private static final int FLOATS_PER_QUAD = 8;   // x, y, w, h, r, g, b, a
+    private static final int CHUNK_SIZE = GameConfig.PARTICLE_CHUNK_SIZE;
+
+    private final Random random = new Random();
+    private long seed;
+    private long frame;         // 已推进的帧数，参与每块随机序列的种子
+    private boolean paused;
+    private int parallelThreshold = GameConfig.PARTICLE_PARALLEL_THRESHOLD;
+
+    // 预算
+    private int budget;
+    private final int[] spawnLimit = new int[3];    // 各优先级允许的最大存活粒子数
+
+    // 共享粒子池（结构数组），[0, count) 为存活粒子
+    private final int capacity;
+    private int count;
+    private final float[] x, y;
+    private final float[] vx, vy;
+    private final float[] life, maxLife;
+    private final float[] size;
+    private final float[] r, g, b;
+    private final int[] emitterOf;      // 粒子所属发射器槽位
+
+    // 发射器表：按槽位存放，空槽位用栈回收
+    private ParticleSystem[] emitters = new ParticleSystem[16];
+    private float[] emitterOpacity = new float[16];
+    private float[] emitterMinSize = new float[16];
+    private float[] emitterTurbulence = new float[16];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;      // 已使用过的最大槽位数
+    private int emitterCount;   // 存活发射器数量
+    private final ArrayDeque<ParticleSystem> handlePool = new ArrayDeque<>();   // 已回收的发射器句柄
+
+    // 统计
+    private int peakParticleCount;
+    private int peakEmitterCount;
+    private long createdEmitterCount;   // 累计创建的发射器数量
+    private int allocatedHandleCount;   // 实际新建的句柄对象数量
+    private long throttledCount;        // 因预算或发射器上限被丢弃的新粒子数量
+    private int culledCount;            // 上一帧被 LOD 剔除的粒子数量
+
+    private float[] quads = new float[0];   // 批量绘制缓冲
+
+    public ParticleManager(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.x = new float[this.capacity];
+        this.y = new float[this.capacity];
+        this.vx = new float[this.capacity];
+        this.vy = new float[this.capacity];
+        this.life = new float[this.capacity];
+        this.maxLife = new float[this.capacity];
+        this.size = new float[this.capacity];
+        this.r = new float[this.capacity];
+        this.g = new float[this.capacity];
+        this.b = new float[this.capacity];
+        this.emitterOf = new int[this.capacity];
+        setBudget(GameConfig.PARTICLE_BUDGET);
+        setSeed(GameConfig.PARTICLE_SEED != 0L ? GameConfig.PARTICLE_SEED : new Random().nextLong());
+    }
+
+    /**
+     * 设置全局粒子预算（不超过池容量），同时更新各优先级的生成上限
+     */
+    public void setBudget(int budget) {
+        this.budget = Math.max(1, Math.min(capacity, budget));
+        spawnLimit[ParticleSystem.PRIORITY_LOW] = (int) (this.budget * GameConfig.PARTICLE_LOW_PRIORITY_SHARE);
+        spawnLimit[ParticleSystem.PRIORITY_NORMAL] = (int) (this.budget * GameConfig.PARTICLE_NORMAL_PRIORITY_SHARE);
+        spawnLimit[ParticleSystem.PRIORITY_HIGH] = this.budget;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    // 创建发射器——玩家粒子
+    public ParticleSystem createEmitter(Vector2 position) {
+        return createEmitter(position, ParticleSystem.Config.defaultPlayer());
+    }
+
+    // 创建绑定到游戏对象的发射器
+    public ParticleSystem createEmitter(GameObject owner, ParticleSystem.Config config) {
+        TransformComponent transform = owner.getComponent(TransformComponent.class);
+        ParticleSystem emitter = createEmitter(transform != null ? transform.getPosition() : new Vector2(), config);
+        emitter.bindTo(owner);
+        return emitter;
+    }
+
+    // 创建发射器——根据config，并生成 initialCount 个初始粒子
+    public ParticleSystem createEmitter(Vector2 position, ParticleSystem.Config config) {
+        int slot = allocateSlot();
+        ParticleSystem emitter = handlePool.poll();
+        if (emitter == null) {
+            emitter = new ParticleSystem(this);
+            allocatedHandleCount++;
+        }
+        emitter.reset(slot, position, config);
+        emitters[slot] = emitter;
+        emitterOpacity[slot] = config.opacityMultiplier;
+        emitterMinSize[slot] = config.minRenderSize;
+        emitterTurbulence[slot] = config.turbulence;
+        emitterCount++;
+        createdEmitterCount++;
+        peakEmitterCount = Math.max(peakEmitterCount, emitterCount);
+        for (int i = 0; i < config.initialCount; i++) {
+            spawn(emitter);
+        }
+        return emitter;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == emitters.length) {
+            int cap = emitters.length * 2;
+            emitters = java.util.Arrays.copyOf(emitters, cap);
+            emitterOpacity = java.util.Arrays.copyOf(emitterOpacity, cap);
+            emitterMinSize = java.util.Arrays.copyOf(emitterMinSize, cap);
+            emitterTurbulence = java.util.Arrays.copyOf(emitterTurbulence, cap);
+            freeSlots = java.util.Arrays.copyOf(freeSlots, cap);
+        }
+        return slotCount++;
+    }
+
+    private void freeEmitter(ParticleSystem emitter) {
+        int slot = emitter.slot;
+        emitters[slot] = null;
+        freeSlots[freeCount++] = slot;
+        emitter.slot = -1;
+        emitter.owner = null;
+        emitter.config = null;
+        emitterCount--;
+        handlePool.push(emitter);
+    }
+
+    // 暂停时不生成也不推进粒子（如游戏结束画面定格）
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * 固定随机种子：之后的粒子生成和扰动序列可复现
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.frame = 0;
+        random.setSeed(seed);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // 存活粒子数不低于该值时多线程积分
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+
+    /**
+     * 批量更新：先按发射器生成新粒子，再一次遍历推进所有粒子，最后释放已排空的发射器
+     */
+    public void update(float deltaTime) {
+        if (paused) return;
+
+        for (int s = 0; s < slotCount; s++) {
+            ParticleSystem emitter = emitters[s];
+            if (emitter == null) continue;
+            if (emitter.owner != null && !emitter.released) {
+                followOwner(emitter);
+            }
+            if (emitter.duration > 0) {
+                emitter.duration -= deltaTime;
+                if (emitter.duration <= 0) {
+                    emitter.released = true;
+                }
+            }
+            if (emitter.active && !emitter.released) {
+                // 按生成速率添加新粒子
+                emitter.timeSinceLastSpawn += deltaTime;
+                if (emitter.timeSinceLastSpawn >= emitter.spawnRate) {
+                    spawn(emitter);
+                    emitter.timeSinceLastSpawn = 0f;
+                }
+            }
+        }
+
+        // 按固定分块积分：分块与线程数无关，串行和并行结果一致
+        frame++;
+        int n = count;
+        int chunkCount = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (n >= parallelThreshold && chunkCount > 1) {
+            WorkerTeam.shared().run(chunkCount, (start, end) -> integrateChunks(start, end, n, deltaTime));
+        } else {
+            integrateChunks(0, chunkCount, n, deltaTime);
+        }
+
+        // 移除死亡粒子（与末尾交换，不移动其余元素）
+        int i = 0;
+        while (i < count) {
+            if (life[i] > 0) {
+                i++;
+            } else {
+                removeAt(i);
+            }
+        }
+
+        for (int s = 0; s < slotCount; s++) {
+            ParticleSystem emitter = emitters[s];
+            if (emitter != null && emitter.released && emitter.count == 0) {
+                freeEmitter(emitter);
+            }
+        }
+        peakParticleCount = Math.max(peakParticleCount, count);
+    }
+
+    // 跟随绑定对象的位置；对象失活时停止生成，等剩余粒子排空
+    private void followOwner(ParticleSystem emitter) {
+        GameObject owner = emitter.owner;
+        if (!owner.isActive()) {
+            emitter.released = true;
+            return;
+        }
+        TransformComponent transform = owner.getComponent(TransformComponent.class);
+        if (transform != null) {
+            Vector2 position = transform.getPosition();
+            emitter.positionX = position.x;
+            emitter.positionY = position.y;
+        }
+    }
+
+    // 积分 [chunkStart, chunkEnd) 块内的粒子；每块只写自己的区间
+    private void integrateChunks(int chunkStart, int chunkEnd, int n, float deltaTime) {
+        for (int c = chunkStart; c < chunkEnd; c++) {
+            long state = mix(seed ^ (frame * 0x9E3779B97F4A7C15L) ^ (c * 0xC2B2AE3D27D4EB4FL));
+            int end = Math.min(n, (c + 1) * CHUNK_SIZE);
+            for (int i = c * CHUNK_SIZE; i < end; i++) {
+                float turbulence = emitterTurbulence[emitterOf[i]];
+                if (turbulence > 0) {
+                    state += 0x9E3779B97F4A7C15L;
+                    long bits = mix(state);
+                    float jx = ((bits & 0xFFFF) / 65535f - 0.5f) * 2f;
+                    float jy = (((bits >>> 16) & 0xFFFF) / 65535f - 0.5f) * 2f;
+                    vx[i] += jx * turbulence * deltaTime;
+                    vy[i] += jy * turbulence * deltaTime;
+                }
+                x[i] += vx[i] * deltaTime;
+                y[i] += vy[i] * deltaTime;
+                life[i] -= deltaTime;
+                vx[i] *= 0.98f;
+                vy[i] *= 0.98f;
+            }
+        }
+    }
+
+    // SplitMix64 混合函数
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void removeAt(int i) {
+        emitters[emitterOf[i]].count--;
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        life[i] = life[last];
+        maxLife[i] = maxLife[last];
+        size[i] = size[last];
+        r[i] = r[last];
+        g[i] = g[last];
+        b[i] = b[last];
+        emitterOf[i] = emitterOf[last];
+    }
+
+    // 写入一个新粒子，超过该优先级的预算或发射器上限时丢弃
+    private void addParticle(ParticleSystem emitter, float angle, float speed, float lifetime, float particleSize,
+                             float cr, float cg, float cb) {
+        if (emitter.count >= emitter.maxParticles || count >= spawnLimit[emitter.priority]) {
+            throttledCount++;
+            return;
+        }
+        int i = count++;
+        x[i] = emitter.positionX;
+        y[i] = emitter.positionY;
+        vx[i] = (float) Math.cos(angle) * speed;
+        vy[i] = (float) Math.sin(angle) * speed;
+        life[i] = lifetime;
+        maxLife[i] = lifetime;
+        size[i] = particleSize;
+        r[i] = cr;
+        g[i] = cg;
+        b[i] = cb;
+        emitterOf[i] = emitter.slot;
+        emitter.count++;
+    }
+
+    // 按持续生成参数添加一个粒子
+    void spawn(ParticleSystem emitter) {
+        ParticleSystem.Config config = emitter.config;
+        float angle = (float) (random.nextFloat() * 2.0 * Math.PI);
+        float speed = config.speedMin + random.nextFloat() * (config.speedMax - config.speedMin);
+        float lifetime = config.lifeMin + random.nextFloat() * (config.lifeMax - config.lifeMin);
+        float particleSize = config.sizeMin + random.nextFloat() * (config.sizeMax - config.sizeMin);
+
+        float cr = config.r;
+        float cg = config.g;
+        float cb = config.b;
+
+        if (config.r < 1.0f) {
+            cr = config.r + random.nextFloat() * 0.2f;
+        }
+        if (config.g < 1.0f) {
+            cg = config.g + random.nextFloat() * 0.2f;
+        }
+
+        addParticle(emitter, angle, speed, lifetime, particleSize, cr, cg, cb);
+    }
+
+    // 按爆发参数一次性添加 n 个粒子
+    void burst(ParticleSystem emitter, int n) {
+        ParticleSystem.Config config = emitter.config;
+        for (int k = 0; k < n; k++) {
+            float angle = (float) (random.nextFloat() * 2.0 * Math.PI);
+            float speed = config.burstSpeedMin + random.nextFloat() * (config.burstSpeedMax - config.burstSpeedMin);
+            float lifetime = config.burstLifeMin + random.nextFloat() * (config.burstLifeMax - config.burstLifeMin);
+            float particleSize = config.burstSizeMin + random.nextFloat() * (config.burstSizeMax - config.burstSizeMin);
+            float cg = config.burstGMin + random.nextFloat() * (config.burstGMax - config.burstGMin);
+            addParticle(emitter, angle, speed, lifetime, particleSize, config.burstR, cg, config.burstB);
+        }
+    }
+
+    // 移除某个发射器的全部粒子
+    void clearEmitter(ParticleSystem emitter) {
+        int slot = emitter.slot;
+        int i = 0;
+        while (i < count && emitter.count > 0) {
+            if (emitterOf[i] == slot) {
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * 批量渲染：裁剪到可见范围、按预算负载做 LOD 剔除后把粒子写入一个缓冲，一次提交给渲染器
+     */
+    public void render(IRenderer renderer) {
+        if (renderer == null || count == 0) return;
+
+        // 可见范围：启用相机时为视口对应的世界矩形，否则为屏幕
+        float minX = -50, minY = -50;
+        float maxX = renderer.getWidth() + 50, maxY = renderer.getHeight() + 50;
+        if (renderer.isCameraEnabled()) {
+            Camera camera = renderer.getCamera();
+            minX += camera.getX();
+            minY += camera.getY();
+            maxX = camera.getViewRight() + 50;
+            maxY = camera.getViewBottom() + 50;
+        }
+
+        // 负载超过 PARTICLE_LOD_START 后，显著度阈值随负载线性升高
+        float load = (float) count / budget;
+        float lodStart = GameConfig.PARTICLE_LOD_START;
+        float minSignificance = load > lodStart
+                ? GameConfig.PARTICLE_LOD_MAX_SIGNIFICANCE * Math.min(1f, (load - lodStart) / (1f - lodStart))
+                : 0f;
+        float centerX = (minX + maxX) * 0.5f;
+        float centerY = (minY + maxY) * 0.5f;
+        float invHalfDiagSq = 4f / ((maxX - minX) * (maxX - minX) + (maxY - minY) * (maxY - minY));
+
+        if (quads.length < count * FLOATS_PER_QUAD) {
+            quads = new float[capacity * FLOATS_PER_QUAD];
+        }
+        int quadCount = 0;
+        int culled = 0;
+        for (int i = 0; i < count; i++) {
+            float px = x[i];
+            float py = y[i];
+            if (px < minX || px > maxX || py < minY || py > maxY) continue;
+
+            int slot = emitterOf[i];
+            float a = Math.min(1.0f, Math.max(0.0f, life[i] / maxLife[i])) * emitterOpacity[slot];
+            if (a <= 0.01f) continue;
+
+            float renderSize = Math.max(emitterMinSize[slot], size[i] * a);
+            if (minSignificance > 0f) {
+                // 离视口中心越远显著度越低（边缘处减半）
+                float dx = px - centerX;
+                float dy = py - centerY;
+                float falloff = 1f - 0.5f * Math.min(1f, (dx * dx + dy * dy) * invHalfDiagSq);
+                if (renderSize * a * falloff < minSignificance) {
+                    culled++;
+                    continue;
+                }
+            }
+            int o = quadCount * FLOATS_PER_QUAD;
+            quads[o] = px - renderSize * 0.5f;
+            quads[o + 1] = py - renderSize * 0.5f;
+            quads[o + 2] = renderSize;
+            quads[o + 3] = renderSize;
+            quads[o + 4] = Math.min(1.0f, Math.max(0.0f, r[i]));
+            quads[o + 5] = Math.min(1.0f, Math.max(0.0f, g[i]));
+            quads[o + 6] = Math.min(1.0f, Math.max(0.0f, b[i]));
+            quads[o + 7] = a;
+            quadCount++;
+        }
+        culledCount = culled;
+        if (quadCount > 0) {
+            renderer.drawQuads(quads, quadCount);
+        }
+    }
+
+    /**
+     * 清空所有粒子并释放所有发射器（场景清理时调用）
+     */
+    public void clear() {
+        for (int s = 0; s < slotCount; s++) {
+            if (emitters[s] != null) {
+                emitters[s].count = 0;
+                emitters[s].slot = -1;
+                emitters[s].owner = null;
+                emitters[s] = null;
+            }
+        }
+        handlePool.clear();
+        count = 0;
+        slotCount = 0;
+        freeCount = 0;
+        emitterCount = 0;
+    }
+
+    public int getParticleCount() {
+        return count;
+    }
+
+    public int getEmitterCount() {
+        return emitterCount;
+    }
+
+    public long getThrottledCount() {
+        return throttledCount;
+    }
+
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    public int getPeakParticleCount() {
+        return peakParticleCount;
+    }
+
+    public int getPeakEmitterCount() {
+        return peakEmitterCount;
+    }
+
+    public long getCreatedEmitterCount() {
+        return createdEmitterCount;
+    }
+
+    // 对象池中等待复用的句柄数量
+    public int getPooledEmitterCount() {
+        return handlePool.size();
+    }
+
+    // 实际新建过的句柄对象数量（稳定后不再增长）
+    public int getAllocatedHandleCount() {
+        return allocatedHandleCount;
+    }
+
+    // 统计摘要，用于长时间运行时观察粒子内存
+    public String getStats() {
+        return "粒子 " + count + "/" + budget + "（峰值 " + peakParticleCount + "，限流 " + throttledCount
+                + "，剔除 " + culledCount + "），发射器 " + emitterCount
+                + "（峰值 " + peakEmitterCount + "，累计 " + createdEmitterCount + "，句柄 " + allocatedHandleCount
+                + "，池中 " + handlePool.size() + "）";
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
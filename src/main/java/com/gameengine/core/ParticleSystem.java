@@ -1,94 +1,38 @@
 package com.gameengine.core;
 
-import com.gameengine.graphics.IRenderer;
 import com.gameengine.math.Vector2;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Iterator;
-import java.util.Random;
 
 
 /**
  * 粒子系统类：管理粒子效果
  * 目前包括： 爆炸、尾随
  * 支持持续生成和爆发模式，可配置粒子属性（速度、生命周期、颜色等）
+ * 粒子发射器只是场景 ParticleManager 中一个槽位的轻量句柄，粒子存放在管理器的共享池中，
+ * 由管理器每帧统一更新和渲染；通过 scene.getParticleManager().createEmitter(...) 创建。
+ * 不再需要时调用 release()：停止生成，剩余粒子消失后自动回收。
+ * 通过 bindTo 绑定到游戏对象后，发射位置自动跟随对象，对象失活（死亡或销毁）时自动 release。
+ * 回收的句柄会被管理器复用，release 之后不应再继续持有和使用。
  */
 public class ParticleSystem {
-    private List<Particle> particles;
-    private Random random;
-    private IRenderer renderer;
-    private float spawnRate;
-    private float timeSinceLastSpawn;
-    private Vector2 position;
-    private boolean active;
-    
-    private Config config;
-
-    /**
-     * 内部粒子类：表示单个粒子
-     */
-    private static class Particle {
-        private Vector2 position;
-        private Vector2 velocity;
-        private float life;
-        private float maxLife;
-        private float size;
-        private float r, g, b, a;
-
-        // 初始化粒子属性
-        public Particle(Vector2 position, Vector2 velocity, float life, float size, float r, float g, float b) {
-            this.position = new Vector2(position);
-            this.velocity = new Vector2(velocity);
-            this.maxLife = life;
-            this.life = life;
-            this.size = size;
-            this.r = r;
-            this.g = g;
-            this.b = b;
-            this.a = 1.0f;
-        }
-
-        // 粒子更新
-        public void update(float deltaTime) {
-            // 位置
-            position = position.add(velocity.multiply(deltaTime));
-            // 生命周期
-            life -= deltaTime;
-            // 透明度
-            if (life > 0) {
-                a = life / maxLife;
-                velocity = velocity.multiply(0.98f);
-            }
-        }
-        
-        public boolean isAlive() {
-            return life > 0;
-        }
-        
-        public Vector2 getPosition() {
-            return new Vector2(position);
-        }
-        
-        public float getSize() {
-            return size;
-        }
-        
-        public float getR() {
-            return r;
-        }
-        
-        public float getG() {
-            return g;
-        }
-        
-        public float getB() {
-            return b;
-        }
-        
-        public float getA() {
-            return a;
-        }
-    }
+    // 优先级：预算紧张时低优先级发射器先被限制生成
+    public static final int PRIORITY_LOW = 0;       // 环境效果（如 AI 光晕）
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;      // 玩家、命中等关键反馈
+
+    private final ParticleManager manager;
+    int slot;                   // 在管理器中的槽位，回收后为 -1
+    Config config;
+    int maxParticles;           // 该发射器最多同时存在的粒子数
+    int priority;               // 预算优先级（PRIORITY_*）
+    GameObject owner;           // 绑定的游戏对象，为空时不跟随
+    float spawnRate;
+    float timeSinceLastSpawn;
+    float positionX;            // 发射位置
+    float positionY;
+    boolean active;
+    boolean released;           // 已释放：不再生成，排空后回收
+    float duration;             // 剩余发射时间，<= 0 表示不限
+    int count;                  // 该发射器的存活粒子数（由管理器维护）
 
     /**
      * 粒子配置类
@@ -107,6 +51,9 @@ public class ParticleSystem {
         public float b = 0.0f;
         public float opacityMultiplier = 1.0f;
         public float minRenderSize = 2.0f;
+        public int maxParticles = Integer.MAX_VALUE;  // 单个发射器的粒子上限（默认不限制，由全局粒子预算限制）
+        public float turbulence = 0f;   // 随机扰动强度（速度每秒的随机变化量），0 表示不扰动
+        public int priority = PRIORITY_NORMAL;  // 预算优先级
         
         public float burstSpeedMin = 80f;
         public float burstSpeedMax = 200f;
@@ -135,6 +82,7 @@ public class ParticleSystem {
             config.b = 0.0f;
             config.opacityMultiplier = 1.0f;
             config.minRenderSize = 2.0f;
+            config.priority = PRIORITY_HIGH;
             return config;
         }
 
@@ -154,152 +102,105 @@ public class ParticleSystem {
             config.b = 1.0f;
             config.opacityMultiplier = 0.6f;
             config.minRenderSize = 1.5f;
+            config.priority = PRIORITY_LOW;
             return config;
         }
     }
 
-    // 初始化粒子系统——玩家粒子
-    public ParticleSystem(IRenderer renderer, Vector2 position) {
-        this(renderer, position, Config.defaultPlayer());
+    ParticleSystem(ParticleManager manager) {
+        this.manager = manager;
+        this.slot = -1;
     }
 
-    // 初始化粒子系统——根据config
-    public ParticleSystem(IRenderer renderer, Vector2 position, Config config) {
-        this.particles = new ArrayList<>();
-        this.random = new Random();
-        this.renderer = renderer;
-        this.position = new Vector2(position);
+    // 从管理器取出时重置全部状态
+    void reset(int slot, Vector2 position, Config config) {
+        this.slot = slot;
+        this.positionX = position.x;
+        this.positionY = position.y;
         this.config = config;
+        this.maxParticles = Math.max(1, config.maxParticles);
+        this.priority = Math.max(PRIORITY_LOW, Math.min(PRIORITY_HIGH, config.priority));
         this.spawnRate = config.spawnRate;
         this.timeSinceLastSpawn = 0f;
         this.active = true;
-        
-        for (int i = 0; i < config.initialCount; i++) {
-            spawnParticle();
-        }
+        this.released = false;
+        this.duration = 0f;
+        this.count = 0;
+        this.owner = null;
     }
-    
+
+    /**
+     * 绑定到游戏对象：每帧跟随对象的位置，对象失活时停止生成并在排空后回收
+     */
+    public void bindTo(GameObject owner) {
+        this.owner = owner;
+    }
+
+    public GameObject getOwner() {
+        return owner;
+    }
+
     public void setActive(boolean active) {
         this.active = active;
     }
-    
+
     public void setPosition(Vector2 position) {
         if (position != null) {
-            this.position = new Vector2(position);
-        }
-    }
-
-    // 更新粒子状态
-    public void update(float deltaTime) {
-        if (active) {
-            // 按生成速率添加新粒子
-            timeSinceLastSpawn += deltaTime;
-            if (timeSinceLastSpawn >= spawnRate) {
-                spawnParticle();
-                timeSinceLastSpawn = 0f;
-            }
-        }
-        // 更新并移除死亡粒子
-        Iterator<Particle> iterator = particles.iterator();
-        while (iterator.hasNext()) {
-            Particle particle = iterator.next();
-            particle.update(deltaTime);
-            if (!particle.isAlive()) {
-                iterator.remove();
-            }
+            this.positionX = position.x;
+            this.positionY = position.y;
         }
     }
 
-    // 添加新粒子
-    private void spawnParticle() {
-        if (position == null) return;
-        
-        float angle = (float) (random.nextFloat() * 2.0 * Math.PI);
-        float speed = config.speedMin + random.nextFloat() * (config.speedMax - config.speedMin);
-        Vector2 velocity = new Vector2(
-            (float) (Math.cos(angle) * speed),
-            (float) (Math.sin(angle) * speed)
-        );
-        
-        float life = config.lifeMin + random.nextFloat() * (config.lifeMax - config.lifeMin);
-        float size = config.sizeMin + random.nextFloat() * (config.sizeMax - config.sizeMin);
-        
-        float r = config.r;
-        float g = config.g;
-        float b = config.b;
-        
-        if (config.r < 1.0f) {
-            r = config.r + random.nextFloat() * 0.2f;
-        }
-        if (config.g < 1.0f) {
-            g = config.g + random.nextFloat() * 0.2f;
-        }
-        
-        Particle particle = new Particle(new Vector2(position), velocity, life, size, r, g, b);
-        particles.add(particle);
-    }
-    
     public void setSpawnRate(float rate) {
         this.spawnRate = rate;
     }
 
-    // 渲染所有存活粒子
-    public void render() {
-        if (renderer == null) return;
+    public void setPriority(int priority) {
+        this.priority = Math.max(PRIORITY_LOW, Math.min(PRIORITY_HIGH, priority));
+    }
 
-        // 遍历所有粒子，绘制矩形
-        for (Particle particle : particles) {
-            Vector2 pos = particle.getPosition();
-            float size = particle.getSize();
-            
-            float r = Math.min(1.0f, Math.max(0.0f, particle.getR()));
-            float g = Math.min(1.0f, Math.max(0.0f, particle.getG()));
-            float b = Math.min(1.0f, Math.max(0.0f, particle.getB()));
-            float a = Math.min(1.0f, Math.max(0.0f, particle.getA())) * config.opacityMultiplier;
-            
-            float maxW = renderer != null ? renderer.getWidth() : 1920;
-            float maxH = renderer != null ? renderer.getHeight() : 1080;
-            if (a > 0.01f && pos.x >= -50 && pos.x <= maxW + 50 && pos.y >= -50 && pos.y <= maxH + 50) {
-                float renderSize = Math.max(config.minRenderSize, size * a);
-                try {
-                    renderer.drawRect(
-                        pos.x - renderSize * 0.5f, pos.y - renderSize * 0.5f, 
-                        renderSize, renderSize,
-                        r, g, b, a
-                    );
-                } catch (Exception e) {
-                }
-            }
-        }
+    public int getPriority() {
+        return priority;
     }
 
-    // 一次性渲染多个[count]粒子
+    // 持续发射 seconds 秒后自动释放
+    public void setDuration(float seconds) {
+        this.duration = seconds;
+    }
+
+    // 一次性生成多个[count]粒子
     public void burst(int count) {
-        for (int i = 0; i < count; i++) {
-            float angle = (float) (random.nextFloat() * 2.0 * Math.PI);
-            float speed = config.burstSpeedMin + random.nextFloat() * (config.burstSpeedMax - config.burstSpeedMin);
-            Vector2 velocity = new Vector2(
-                (float) (Math.cos(angle) * speed),
-                (float) (Math.sin(angle) * speed)
-            );
-            
-            float life = config.burstLifeMin + random.nextFloat() * (config.burstLifeMax - config.burstLifeMin);
-            float size = config.burstSizeMin + random.nextFloat() * (config.burstSizeMax - config.burstSizeMin);
-            
-            float r = config.burstR;
-            float g = config.burstGMin + random.nextFloat() * (config.burstGMax - config.burstGMin);
-            float b = config.burstB;
-            
-            Particle particle = new Particle(new Vector2(position), velocity, life, size, r, g, b);
-            particles.add(particle);
-        }
+        if (slot < 0) return;
+        manager.burst(this, count);
+    }
+
+    /**
+     * 释放发射器：停止生成新粒子，已有粒子自然消失后由管理器回收槽位
+     */
+    public void release() {
+        released = true;
     }
-    
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    // 槽位是否仍有效（回收后句柄失效，所有操作均被忽略）
+    public boolean isAlive() {
+        return slot >= 0;
+    }
+
     public int getParticleCount() {
-        return particles.size();
+        return count;
     }
-    
+
+    public int getCapacity() {
+        return maxParticles;
+    }
+
+    // 立即移除该发射器的全部粒子
     public void clear() {
-        particles.clear();
+        if (slot < 0) return;
+        manager.clearEmitter(this);
     }
 }
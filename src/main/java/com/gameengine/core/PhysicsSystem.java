@@ -2,77 +2,238 @@ package com.gameengine.core;
 
 import com.gameengine.components.TransformComponent;
 import com.gameengine.components.PhysicsComponent;
+import com.gameengine.config.GameConfig;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 物理系统：处理物理模拟（速度、加速度、重力、边界碰撞）。
- * 使用多线程并行更新物理组件。
+ * 使用常驻工作线程组（WorkerTeam）并行更新物理组件，刚体数量低于测定的阈值时串行执行（每个线程组只测定一次）。
+ * 休眠刚体不参与积分、边界检测和宽相位重建，开销随运动刚体数量而非总数增长。
+ * 物理以固定频率（PHYSICS_TICK_RATE）子步推进，与渲染帧率无关。
+ * 场景设置了世界分块时，休眠区块中的刚体累积子步，每 WORLD_DORMANT_TICK_INTERVAL 帧（错开）批量推进一次。
  */
 public class PhysicsSystem {
     private Scene scene;
-    private ExecutorService physicsExecutor;
-    private int screenWidth;
-    private int screenHeight;
+    private final WorkerTeam workerTeam = WorkerTeam.shared();
+    private int serialThreshold;    // 刚体数低于该值时串行积分（线程组上首次创建物理系统时测定）
+    private int worldWidth;     // 边界碰撞使用的世界尺寸
+    private int worldHeight;
+
+    // 休眠管理
+    private final List<PhysicsComponent> awakeBodies = new ArrayList<>();     // 本帧参与积分的刚体
+    private int[] awakeSteps = new int[64];     // 每个参与积分的刚体本帧推进的子步数
+    private int deferredBodyCount;  // 本帧因位于休眠区块而推迟的刚体数
+    private int frameCounter;
+    private final List<PhysicsComponent> sleepingBodies = new ArrayList<>();  // 宽相位中的休眠刚体
+    private final SpatialGrid sleepingGrid = new SpatialGrid(GameConfig.PHYSICS_CONTACT_RADIUS * 2);
+    private float[] sleepingX = new float[64];
+    private float[] sleepingY = new float[64];
+    private final int[] contactCandidates = new int[64];
+    private volatile boolean sleepSetChanged = true;  // 有刚体进入休眠，需要重建宽相位
+    private int lastSleepingCount = -1;
+
+    // 固定步长子步进：物理频率与渲染帧率解耦
+    private float tickRate = GameConfig.PHYSICS_TICK_RATE;
+    private int maxSubsteps = GameConfig.PHYSICS_MAX_SUBSTEPS;
+    private float accumulator;  // 尚未模拟的时间
 
     public PhysicsSystem(Scene scene) {
         this(scene, 1920, 1080);
     }
     
-    public PhysicsSystem(Scene scene, int screenWidth, int screenHeight) {
+    public PhysicsSystem(Scene scene, int worldWidth, int worldHeight) {
         this.scene = scene;
-        this.screenWidth = screenWidth;
-        this.screenHeight = screenHeight;
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        this.physicsExecutor = Executors.newFixedThreadPool(threadCount);
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        calibrateSerialThreshold();
     }
 
-    // 更新所有组件
+    /**
+     * 测定串行阈值：用一批临时刚体测量单个刚体的积分耗时，与线程组派发开销比较。
+     * 结果缓存在共用线程组上，之后创建的物理系统（每次切换场景）直接使用，不再重复测定
+     */
+    private void calibrateSerialThreshold() {
+        int sampleCount = 256;
+        serialThreshold = workerTeam.calibrateSerialThresholdOnce("physics", () -> {
+            List<PhysicsComponent> samples = new ArrayList<>(sampleCount);
+            for (int i = 0; i < sampleCount; i++) {
+                GameObject obj = new GameObject("PhysicsCalibration");
+                obj.addComponent(new TransformComponent(new Vector2(i % 64 * 10f, i / 64 * 10f)));
+                PhysicsComponent physics = obj.addComponent(new PhysicsComponent());
+                physics.setVelocity(new Vector2(100f, 50f));
+                physics.setAllowSleep(false);
+                samples.add(physics);
+            }
+            float stepTime = 1.0f / tickRate;
+            return (start, end) -> {
+                for (int j = start; j < end; j++) {
+                    simulateBody(samples.get(j), 1, stepTime);
+                }
+            };
+        }, sampleCount);
+    }
+
+    /**
+     * 更新所有组件：累积帧时间，按固定物理步长推进若干子步。
+     * 超过最大子步数的积压时间被丢弃，避免卡顿后陷入追帧死循环。
+     */
     public void update(float deltaTime) {
+        float stepTime = 1.0f / tickRate;
+        accumulator += deltaTime;
+        int steps = (int) (accumulator / stepTime);
+        if (steps > maxSubsteps) {
+            steps = maxSubsteps;
+            accumulator = 0f;
+        } else {
+            accumulator -= steps * stepTime;
+        }
+        if (steps == 0) return;
+
         List<PhysicsComponent> physicsComponents = scene.getComponents(PhysicsComponent.class);
         if (physicsComponents.isEmpty()) return;
-        
-        int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-        threadCount = Math.max(2, threadCount);
-        int batchSize = Math.max(1, physicsComponents.size() / threadCount + 1);
-        
-        List<Future<?>> futures = new ArrayList<>();
-        
-        for (int i = 0; i < physicsComponents.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, physicsComponents.size());
-            
-            Future<?> future = physicsExecutor.submit(() -> {
-                for (int j = start; j < end; j++) {
-                    PhysicsComponent physics = physicsComponents.get(j);
-                    if (physics.isEnabled()) {
-                        updatePhysics(physics, deltaTime);
-                        handleBoundary(physics);
-                    }
+
+        // 区分运动刚体和休眠刚体；休眠区块中的运动刚体只累积子步，轮到它时再一次推进
+        WorldPartition partition = scene.getWorldPartition();
+        int interval = GameConfig.WORLD_DORMANT_TICK_INTERVAL;
+        int maxDeferred = maxSubsteps * interval;
+        frameCounter++;
+        awakeBodies.clear();
+        deferredBodyCount = 0;
+        int sleepingCount = 0;
+        for (PhysicsComponent physics : physicsComponents) {
+            if (!physics.isEnabled()) continue;
+            if (physics.isSleeping()) {
+                sleepingCount++;
+                continue;
+            }
+            int bodySteps;
+            if (partition != null && !isInActiveChunk(physics, partition)) {
+                int deferred = physics.deferSteps(steps, maxDeferred);
+                int slot = System.identityHashCode(physics) & 0x7fffffff;
+                if ((frameCounter + slot) % interval != 0) {
+                    deferredBodyCount++;
+                    continue;
                 }
-            });
-            
-            futures.add(future);
+                physics.takeDeferredSteps();
+                bodySteps = deferred;
+            } else {
+                bodySteps = steps + physics.takeDeferredSteps();
+            }
+            int index = awakeBodies.size();
+            if (index == awakeSteps.length) {
+                awakeSteps = java.util.Arrays.copyOf(awakeSteps, index * 2);
+            }
+            awakeSteps[index] = bodySteps;
+            awakeBodies.add(physics);
         }
-        
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (Exception e) {
-                e.printStackTrace();
+        if (sleepingCount != lastSleepingCount) {
+            sleepSetChanged = true;
+            lastSleepingCount = sleepingCount;
+        }
+
+        if (!awakeBodies.isEmpty()) {
+            integrateAwakeBodies(stepTime);
+        }
+
+        // 休眠集合变化时才重建宽相位
+        if (sleepSetChanged) {
+            rebuildSleepingBroadphase(physicsComponents);
+        }
+        wakeOnContact();
+    }
+
+    // 并行积分所有运动刚体：每个成员一次派发内完成自己区间的全部子步，而不是每个子步重新派发
+    private void integrateAwakeBodies(float stepTime) {
+        List<PhysicsComponent> bodies = awakeBodies;
+        int[] bodySteps = awakeSteps;
+        workerTeam.run(bodies.size(), serialThreshold, (start, end) -> {
+            for (int j = start; j < end; j++) {
+                PhysicsComponent physics = bodies.get(j);
+                simulateBody(physics, bodySteps[j], stepTime);
+                if (physics.updateSleepState(bodySteps[j] * stepTime)) {
+                    sleepSetChanged = true;
+                }
+            }
+        });
+    }
+
+    // 重建休眠刚体的空间网格（休眠刚体不移动，集合不变时网格保持有效）
+    private void rebuildSleepingBroadphase(List<PhysicsComponent> physicsComponents) {
+        sleepingBodies.clear();
+        for (PhysicsComponent physics : physicsComponents) {
+            if (!physics.isEnabled() || !physics.isSleeping()) continue;
+            GameObject owner = physics.getOwner();
+            TransformComponent transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+            if (transform == null) continue;
+            int index = sleepingBodies.size();
+            if (index == sleepingX.length) {
+                sleepingX = java.util.Arrays.copyOf(sleepingX, index * 2);
+                sleepingY = java.util.Arrays.copyOf(sleepingY, index * 2);
+            }
+            Vector2 pos = transform.getPosition();
+            sleepingX[index] = pos.x;
+            sleepingY[index] = pos.y;
+            sleepingBodies.add(physics);
+        }
+        sleepingGrid.build(sleepingX, sleepingY, sleepingBodies.size());
+        sleepSetChanged = false;
+    }
+
+    // 接触唤醒：运动刚体进入休眠刚体的接触半径时唤醒后者
+    private void wakeOnContact() {
+        if (sleepingBodies.isEmpty()) return;
+        float radius = GameConfig.PHYSICS_CONTACT_RADIUS;
+        float radiusSq = radius * radius;
+        for (PhysicsComponent mover : awakeBodies) {
+            if (mover.isSleeping()) continue;
+            GameObject owner = mover.getOwner();
+            TransformComponent transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+            if (transform == null) continue;
+            Vector2 pos = transform.getPosition();
+            int found = sleepingGrid.query(pos.x, pos.y, radius, contactCandidates);
+            for (int k = 0; k < found; k++) {
+                int index = contactCandidates[k];
+                PhysicsComponent sleeper = sleepingBodies.get(index);
+                if (sleeper == mover || !sleeper.isSleeping()) continue;
+                float dx = sleepingX[index] - pos.x;
+                float dy = sleepingY[index] - pos.y;
+                if (dx * dx + dy * dy <= radiusSq) {
+                    sleeper.wakeUp();
+                }
             }
         }
     }
 
-    // 更新单个组件
-    private void updatePhysics(PhysicsComponent physics, float deltaTime) {
+    private boolean isInActiveChunk(PhysicsComponent physics, WorldPartition partition) {
+        GameObject owner = physics.getOwner();
+        TransformComponent transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+        if (transform == null) return true;
+        Vector2 pos = transform.getPosition();
+        return partition.isActive(pos.x, pos.y);
+    }
+
+    // 本帧因位于休眠区块而推迟模拟的刚体数
+    public int getDeferredBodyCount() {
+        return deferredBodyCount;
+    }
+
+    public int getAwakeBodyCount() {
+        return awakeBodies.size();
+    }
+
+    public int getSleepingBodyCount() {
+        return Math.max(0, lastSleepingCount);
+    }
+
+    /**
+     * 以半隐式欧拉法推进单个刚体 steps 个子步：先积分速度，再用新速度积分位置。
+     * 子步在局部变量上完成，最后一次性写回组件。
+     */
+    private void simulateBody(PhysicsComponent physics, int steps, float stepTime) {
         GameObject owner = physics.getOwner();
         if (owner == null) return;
         
@@ -83,70 +244,73 @@ public class PhysicsSystem {
         
         if (physics.isUseGravity()) {
             acceleration = acceleration.add(physics.getGravity());
-            physics.setAcceleration(acceleration);
         }
         
         Vector2 velocity = physics.getVelocity();
-        velocity = velocity.add(acceleration.multiply(deltaTime));
-        velocity = velocity.multiply(physics.getFriction());
-        physics.setVelocity(velocity);
-        
-        Vector2 deltaPosition = velocity.multiply(deltaTime);
-        transform.translate(deltaPosition);
-        
-        physics.setAcceleration(new Vector2());
-    }
-
-    // 处理边界碰撞
-    private void handleBoundary(PhysicsComponent physics) {
-        GameObject owner = physics.getOwner();
-        if (owner == null) return;
-        
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
-        if (transform == null) return;
-        
         Vector2 pos = transform.getPosition();
-        Vector2 velocity = physics.getVelocity();
-        
-        boolean velocityChanged = false;
+        float ax = acceleration.x;
+        float ay = acceleration.y;
         float velX = velocity.x;
         float velY = velocity.y;
         float posX = pos.x;
         float posY = pos.y;
-        
-        if (posX <= 0 || posX >= screenWidth - 15) {
-            velX = -velX;
-            velocityChanged = true;
-        }
-        if (posY <= 0 || posY >= screenHeight - 15) {
-            velY = -velY;
-            velocityChanged = true;
+        // 摩擦系数按参考帧率定义，换算到子步长度，保证不同物理频率下衰减一致
+        float damping = (float) Math.pow(physics.getFriction(), stepTime * GameConfig.PHYSICS_REFERENCE_RATE);
+        float maxX = worldWidth - 15;
+        float maxY = worldHeight - 15;
+
+        for (int s = 0; s < steps; s++) {
+            velX = (velX + ax * stepTime) * damping;
+            velY = (velY + ay * stepTime) * damping;
+            posX += velX * stepTime;
+            posY += velY * stepTime;
+
+            // 处理边界碰撞
+            if (posX <= 0 || posX >= maxX) {
+                velX = -velX;
+            }
+            if (posY <= 0 || posY >= maxY) {
+                velY = -velY;
+            }
+            if (posX < 0) posX = 0;
+            if (posY < 0) posY = 0;
+            if (posX > maxX) posX = maxX;
+            if (posY > maxY) posY = maxY;
         }
-        
-        if (posX < 0) posX = 0;
-        if (posY < 0) posY = 0;
-        if (posX > screenWidth - 15) posX = screenWidth - 15;
-        if (posY > screenHeight - 15) posY = screenHeight - 15;
-        
+
         transform.setPosition(new Vector2(posX, posY));
-        
-        if (velocityChanged) {
-            physics.setVelocity(new Vector2(velX, velY));
-        }
+        physics.setVelocity(new Vector2(velX, velY));
+        physics.setAcceleration(new Vector2());
     }
-    
+
+    public void setTickRate(float tickRate) {
+        this.tickRate = Math.max(1f, tickRate);
+    }
+
+    public float getTickRate() {
+        return tickRate;
+    }
+
+    public void setMaxSubsteps(int maxSubsteps) {
+        this.maxSubsteps = Math.max(1, maxSubsteps);
+    }
+
+    public int getMaxSubsteps() {
+        return maxSubsteps;
+    }
+
+    /**
+     * 剩余未模拟时间占一个物理步长的比例，可用于渲染插值
+     */
+    public float getInterpolationAlpha() {
+        return accumulator * tickRate;
+    }
+
+    public int getSerialThreshold() {
+        return serialThreshold;
+    }
+
+    // 工作线程组为引擎共用，由 GameEngine 退出时关闭
     public void cleanup() {
-        if (physicsExecutor != null && !physicsExecutor.isShutdown()) {
-            physicsExecutor.shutdown();
-            try {
-                if (!physicsExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
-                    physicsExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                physicsExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
     }
 }
-
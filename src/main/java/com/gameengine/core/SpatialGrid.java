@@ -0,0 +1,121 @@
+package com.gameengine.core;
+
+/**
+ * 均匀网格空间索引：按固定单元尺寸对点进行哈希分桶，用于邻近查询。
+ * 使用计数排序一次性构建，全部数据存放在基本类型数组中，构建和查询都不产生对象分配。
+ * 网格本身不限制世界大小（单元坐标经哈希映射到桶），适合每帧重建。
+ */
+public class SpatialGrid {
+    private final float cellSize;
+    private final float invCellSize;
+
+    private int[] bucketStart = new int[17]; // 每个桶在 items 中的起始位置（长度 = 桶数 + 1）
+    private int[] items = new int[16];       // 按桶排序后的元素索引
+    private int[] cellX = new int[16];       // 元素所在单元坐标（用于排除哈希冲突）
+    private int[] cellY = new int[16];
+    private int[] bucketOf = new int[16];
+    private int bucketMask = 15;
+    private int count;
+
+    public SpatialGrid(float cellSize) {
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+    }
+
+    /**
+     * 使用坐标数组重建网格，元素编号即数组下标
+     */
+    public void build(float[] xs, float[] ys, int count) {
+        this.count = count;
+        ensureCapacity(count);
+
+        int buckets = bucketMask + 1;
+        java.util.Arrays.fill(bucketStart, 0, buckets + 1, 0);
+
+        for (int i = 0; i < count; i++) {
+            int cx = cellCoord(xs[i]);
+            int cy = cellCoord(ys[i]);
+            int bucket = hash(cx, cy);
+            cellX[i] = cx;
+            cellY[i] = cy;
+            bucketOf[i] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        // 借用 bucketStart 的前缀和作为写指针，填充完成后再回退
+        for (int i = 0; i < count; i++) {
+            items[bucketStart[bucketOf[i]]++] = i;
+        }
+        for (int b = buckets; b > 0; b--) {
+            bucketStart[b] = bucketStart[b - 1];
+        }
+        bucketStart[0] = 0;
+    }
+
+    /**
+     * 查询与圆形区域相交的单元中的所有元素（候选集，调用方自行做精确距离判断）
+     * @return 写入 out 的元素数量，超过 out 长度的部分被截断
+     */
+    public int query(float x, float y, float radius, int[] out) {
+        return queryRect(x - radius, y - radius, x + radius, y + radius, out);
+    }
+
+    /**
+     * 查询与轴对齐矩形相交的单元中的所有元素
+     */
+    public int queryRect(float minX, float minY, float maxX, float maxY, int[] out) {
+        if (count == 0) return 0;
+        int cx0 = cellCoord(minX);
+        int cy0 = cellCoord(minY);
+        int cx1 = cellCoord(maxX);
+        int cy1 = cellCoord(maxY);
+        int found = 0;
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int bucket = hash(cx, cy);
+                int end = bucketStart[bucket + 1];
+                for (int k = bucketStart[bucket]; k < end; k++) {
+                    int item = items[k];
+                    if (cellX[item] != cx || cellY[item] != cy) continue;
+                    if (found == out.length) return found;
+                    out[found++] = item;
+                }
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    private int cellCoord(float v) {
+        return (int) Math.floor(v * invCellSize);
+    }
+
+    private int hash(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & bucketMask;
+    }
+
+    // 桶数量保持为元素数量两倍以上的2的幂，降低冲突概率
+    private void ensureCapacity(int n) {
+        if (items.length < n) {
+            int cap = Math.max(n, items.length * 2);
+            items = new int[cap];
+            cellX = new int[cap];
+            cellY = new int[cap];
+            bucketOf = new int[cap];
+        }
+        int buckets = Integer.highestOneBit(Math.max(16, n * 2) - 1) << 1;
+        if (buckets > bucketMask + 1) {
+            bucketMask = buckets - 1;
+            bucketStart = new int[buckets + 1];
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.gameengine.core;
+
+import com.gameengine.components.AIComponent;
+import com.gameengine.components.HealthComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.config.GameConfig;
+import com.gameengine.math.Vector2;
+import com.gameengine.scene.Scene;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * 波次生成器：每隔 WAVE_INTERVAL 秒开始新的一波，敌人数量和血量按波次增长。
+ * 生成请求进入队列，每帧最多生成 ENEMY_SPAWN_BUDGET 个，且存活数量不超过 ENEMY_MAX_ALIVE。
+ * 敌人从对象池中取出，死亡时由 HealthComponent 的死亡处理器放回对象池；
+ * 被回收的对象要等场景把它移出对象列表（隔一帧）之后才能再次使用。
+ * 生成位置在玩家周围的圆环内均匀采样。
+ */
+public class WaveSpawner {
+    private final Scene scene;
+    private final Supplier<GameObject> factory;     // 对象池为空时创建新敌人（不加入场景）
+    private final Random random;
+
+    private final ArrayDeque<GameObject> pool = new ArrayDeque<>();
+    private final List<GameObject> quarantine = new ArrayList<>();   // 已回收但可能仍在场景列表中的对象
+    private final List<Integer> quarantineFrames = new ArrayList<>();
+    private final HealthComponent.DeathHandler deathHandler = this::release;
+
+    private float waveTimer;
+    private int wave;
+    private int pendingSpawns;      // 排队等待生成的敌人数量
+    private float pendingHealth;    // 排队敌人的最大血量（取最近一波）
+    private int aliveCount;
+    private int frame;
+    private int createdCount;       // 累计新建的敌人对象数量
+
+    public WaveSpawner(Scene scene, Supplier<GameObject> factory, Random random) {
+        this.scene = scene;
+        this.factory = factory;
+        this.random = random;
+        this.waveTimer = GameConfig.WAVE_INTERVAL;  // 第一次 update 时立即开始第一波
+        this.pendingHealth = GameConfig.ENEMY_BASE_HEALTH;
+    }
+
+    /**
+     * 额外排队 count 个当前血量的敌人（如开局的初始敌人）
+     */
+    public void queueSpawns(int count) {
+        pendingSpawns += Math.max(0, count);
+    }
+
+    /**
+     * 推进波次计时，并在预算内生成排队的敌人
+     * @param center 生成圆环的中心（通常是玩家位置）
+     */
+    public void update(float deltaTime, Vector2 center) {
+        frame++;
+        recycleQuarantine();
+
+        waveTimer += deltaTime;
+        if (waveTimer >= GameConfig.WAVE_INTERVAL) {
+            waveTimer -= GameConfig.WAVE_INTERVAL;
+            startNextWave();
+        }
+
+        int budget = GameConfig.ENEMY_SPAWN_BUDGET;
+        while (pendingSpawns > 0 && budget > 0 && aliveCount < GameConfig.ENEMY_MAX_ALIVE) {
+            spawn(center, pendingHealth);
+            pendingSpawns--;
+            budget--;
+        }
+    }
+
+    private void startNextWave() {
+        wave++;
+        int count = GameConfig.ENEMY_BASE_COUNT + (wave - 1) * GameConfig.ENEMY_COUNT_GROWTH;
+        pendingHealth = GameConfig.ENEMY_BASE_HEALTH + (wave - 1) * GameConfig.ENEMY_HEALTH_GROWTH;
+        pendingSpawns += count;
+        System.out.println("第 " + wave + " 波：" + count + " 个敌人，血量 " + pendingHealth);
+    }
+
+    private void spawn(Vector2 center, float maxHealth) {
+        GameObject enemy = pool.poll();
+        if (enemy == null) {
+            enemy = factory.get();
+            createdCount++;
+        }
+        Vector2 position = sampleSpawnPosition(center);
+
+        TransformComponent transform = enemy.getComponent(TransformComponent.class);
+        if (transform != null) {
+            transform.setPosition(position);
+        }
+        PhysicsComponent physics = enemy.getComponent(PhysicsComponent.class);
+        if (physics != null) {
+            physics.setVelocity(new Vector2(
+                (random.nextFloat() - 0.5f) * 150,
+                (random.nextFloat() - 0.5f) * 150
+            ));
+            physics.wakeUp();
+        }
+        HealthComponent health = enemy.getComponent(HealthComponent.class);
+        if (health != null) {
+            health.setMaxHealth(maxHealth);
+            health.reset();
+            health.setDeathHandler(deathHandler);
+        }
+        AIComponent ai = enemy.getComponent(AIComponent.class);
+        if (ai != null) {
+            ai.markDue();
+        }
+
+        enemy.setScene(scene);
+        enemy.setActive(true);
+        scene.addGameObject(enemy);
+        aliveCount++;
+    }
+
+    /**
+     * 在 [ENEMY_SPAWN_MIN_DISTANCE, ENEMY_SPAWN_MAX_DISTANCE] 圆环内按面积均匀采样；
+     * 落在世界外时换一个角度重试，仍失败则夹到世界边界内
+     */
+    private Vector2 sampleSpawnPosition(Vector2 center) {
+        float worldW = scene.getWorldWidth();
+        float worldH = scene.getWorldHeight();
+        float minR = GameConfig.ENEMY_SPAWN_MIN_DISTANCE;
+        float maxR = GameConfig.ENEMY_SPAWN_MAX_DISTANCE;
+        float x = center.x;
+        float y = center.y;
+        for (int attempt = 0; attempt < 4; attempt++) {
+            float angle = random.nextFloat() * (float) (Math.PI * 2);
+            float r = (float) Math.sqrt(minR * minR + random.nextFloat() * (maxR * maxR - minR * minR));
+            x = center.x + (float) Math.cos(angle) * r;
+            y = center.y + (float) Math.sin(angle) * r;
+            if (x >= 0 && y >= 0 && x <= worldW - 20 && y <= worldH - 20) {
+                return new Vector2(x, y);
+            }
+        }
+        return new Vector2(Math.max(0, Math.min(x, worldW - 20)), Math.max(0, Math.min(y, worldH - 20)));
+    }
+
+    /**
+     * 死亡处理：隐藏对象并放入隔离区，场景移除后再回到对象池
+     */
+    public void release(GameObject enemy) {
+        if (!enemy.isActive()) return;
+        enemy.setActive(false);
+        quarantine.add(enemy);
+        quarantineFrames.add(frame);
+        aliveCount = Math.max(0, aliveCount - 1);
+    }
+
+    // 场景在下一次 update 中移除非活跃对象，隔两帧后一定已移出列表
+    private void recycleQuarantine() {
+        int kept = 0;
+        for (int i = 0; i < quarantine.size(); i++) {
+            GameObject enemy = quarantine.get(i);
+            int releasedAt = quarantineFrames.get(i);
+            if (frame - releasedAt >= 2) {
+                pool.push(enemy);
+            } else {
+                quarantine.set(kept, enemy);
+                quarantineFrames.set(kept, releasedAt);
+                kept++;
+            }
+        }
+        while (quarantine.size() > kept) {
+            int last = quarantine.size() - 1;
+            quarantine.remove(last);
+            quarantineFrames.remove(last);
+        }
+    }
+
+    public int getWave() {
+        return wave;
+    }
+
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    public int getPendingSpawns() {
+        return pendingSpawns;
+    }
+
+    public int getPooledCount() {
+        return pool.size();
+    }
+
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    // 距下一波的剩余时间（秒）
+    public float getTimeToNextWave() {
+        return Math.max(0f, GameConfig.WAVE_INTERVAL - waveTimer);
+    }
+}
@@ -0,0 +1,291 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 常驻工作线程组：替代每帧向线程池提交任务再逐个 Future.get() 的做法。
+ * 调用线程作为 0 号成员参与计算，每个成员静态负责 [count*i/n, count*(i+1)/n) 区间。
+ * 派发和汇合都先自旋一小段时间再挂起（spin-then-park），帧间隔短时几乎没有唤醒开销。
+ * 任务量低于串行阈值时直接在调用线程执行，阈值可通过 calibrateSerialThreshold 在启动时测定。
+ * 物理、AI、粒子和光栅化共用 shared() 返回的同一个线程组（调用线程加工作线程正好等于 CPU 核数），
+ * 避免多个线程组互相抢占 CPU；线程组同一时间只执行一个任务，其他线程或嵌套调用直接串行执行。
+ * 任何成员抛出的异常都会在所有成员结束后于调用线程重新抛出。
+ */
+public class WorkerTeam {
+    /**
+     * 区间任务：处理 [start, end) 范围内的元素
+     */
+    public interface RangeTask {
+        void run(int start, int end);
+    }
+
+    private static final int SPIN_LIMIT = 20_000;   // 挂起前的自旋次数
+
+    private static WorkerTeam shared;
+
+    private final int spinLimit;    // 单核机器上自旋没有意义，直接挂起
+    private final Worker[] workers;
+    private final int teamSize;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean busy = new AtomicBoolean();    // 正在执行任务
+    private volatile int generation;    // 每次派发递增，工作线程据此发现新任务
+    private volatile boolean shutdown;
+    private volatile Thread caller;
+    private volatile boolean callerParked;
+    private volatile Throwable failure;
+    private RangeTask task;     // 由 generation 的 volatile 写发布
+    private int itemCount;
+    private int serialThreshold = 0;
+    private final Map<String, Integer> calibratedThresholds = new HashMap<>();  // 按任务名缓存的测定结果
+
+    public WorkerTeam(String name, int teamSize) {
+        this.teamSize = Math.max(1, teamSize);
+        this.spinLimit = Runtime.getRuntime().availableProcessors() > 1 ? SPIN_LIMIT : 0;
+        this.workers = new Worker[this.teamSize - 1];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i + 1);
+            workers[i].thread = new Thread(workers[i]::loop, name + "-" + (i + 1));
+            workers[i].thread.setDaemon(true);
+            workers[i].thread.start();
+        }
+    }
+
+    /**
+     * 引擎共用的线程组（首次调用时创建，shutdownShared 之后再次调用会重新创建）
+     */
+    public static synchronized WorkerTeam shared() {
+        if (shared == null || shared.shutdown) {
+            shared = new WorkerTeam("engine-worker", Runtime.getRuntime().availableProcessors());
+        }
+        return shared;
+    }
+
+    /**
+     * 停止共用线程组（引擎退出时调用）
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.shutdown();
+            shared = null;
+        }
+    }
+
+    /**
+     * 在整个线程组上执行任务并等待完成；返回时所有成员的写入对调用线程可见
+     */
+    public void run(int count, RangeTask task) {
+        run(count, serialThreshold, task);
+    }
+
+    /**
+     * 同上，使用调用方自己的串行阈值（共用线程组时各模块的阈值不同）
+     */
+    public void run(int count, int serialThreshold, RangeTask task) {
+        if (count <= 0) return;
+        if (workers.length == 0 || count < serialThreshold || shutdown || !busy.compareAndSet(false, true)) {
+            task.run(0, count);
+            return;
+        }
+        try {
+            dispatch(count, task);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private void dispatch(int count, RangeTask task) {
+        this.task = task;
+        this.itemCount = count;
+        this.caller = Thread.currentThread();
+        this.failure = null;
+        pending.set(workers.length);
+        generation++;
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker.thread);
+            }
+        }
+
+        // 调用线程自己的区间抛出异常时也要等其他成员结束，否则下次派发会覆盖仍在使用的任务
+        try {
+            runChunk(0);
+        } finally {
+            awaitWorkers();
+            this.task = null;
+        }
+
+        Throwable error = failure;
+        if (error != null) {
+            failure = null;
+            if (error instanceof RuntimeException) throw (RuntimeException) error;
+            if (error instanceof Error) throw (Error) error;
+            throw new RuntimeException(error);
+        }
+    }
+
+    // 等待其他成员完成
+    private void awaitWorkers() {
+        int spins = 0;
+        while (pending.get() > 0) {
+            if (spins < spinLimit) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                callerParked = true;
+                if (pending.get() > 0) {
+                    LockSupport.park(this);
+                }
+                callerParked = false;
+            }
+        }
+    }
+
+    private void runChunk(int member) {
+        int start = (int) ((long) itemCount * member / teamSize);
+        int end = (int) ((long) itemCount * (member + 1) / teamSize);
+        if (start < end) {
+            task.run(start, end);
+        }
+    }
+
+    /**
+     * 测定串行阈值：比较一次空派发的往返开销与单个元素的处理耗时。
+     * 元素数超过 overhead / (cost * (1 - 1/n)) 时并行才划算。
+     * @param sample 用于计时的样本任务
+     * @param sampleCount 样本元素数量
+     * @return 测得的阈值（不修改本线程组的默认阈值，由调用方在 run 时传入）
+     */
+    public int calibrateSerialThreshold(RangeTask sample, int sampleCount) {
+        if (workers.length == 0 || sampleCount <= 0 || !busy.compareAndSet(false, true)) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            return measureSerialThreshold(sample, sampleCount);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private int measureSerialThreshold(RangeTask sample, int sampleCount) {
+        RangeTask empty = (start, end) -> { };
+        int rounds = 64;
+        long[] dispatchTimes = new long[rounds];
+        long[] sampleTimes = new long[rounds / 4];
+        // 预热 JIT
+        for (int i = 0; i < rounds; i++) {
+            dispatch(teamSize, empty);
+            sample.run(0, sampleCount);
+        }
+        for (int i = 0; i < rounds; i++) {
+            long t0 = System.nanoTime();
+            dispatch(teamSize, empty);
+            dispatchTimes[i] = System.nanoTime() - t0;
+        }
+        for (int i = 0; i < sampleTimes.length; i++) {
+            long t0 = System.nanoTime();
+            sample.run(0, sampleCount);
+            sampleTimes[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(dispatchTimes);
+        Arrays.sort(sampleTimes);
+        double overhead = dispatchTimes[rounds / 2];
+        double perItem = Math.max(1.0, (double) sampleTimes[sampleTimes.length / 2] / sampleCount);
+        double threshold = overhead / (perItem * (1.0 - 1.0 / teamSize));
+        return (int) Math.max(32, Math.min(16_384, threshold));
+    }
+
+    /**
+     * 按任务名缓存的串行阈值：同一线程组上每种任务只测定一次，之后直接返回缓存值。
+     * 样本由 sampleFactory 在第一次测定时才创建
+     */
+    public synchronized int calibrateSerialThresholdOnce(String key, Supplier<RangeTask> sampleFactory, int sampleCount) {
+        Integer cached = calibratedThresholds.get(key);
+        if (cached != null) return cached;
+        int threshold = calibrateSerialThreshold(sampleFactory.get(), sampleCount);
+        // 线程组正忙时没有实际测定，不缓存
+        if (threshold != Integer.MAX_VALUE || workers.length == 0) {
+            calibratedThresholds.put(key, threshold);
+        }
+        return threshold;
+    }
+
+    public void setSerialThreshold(int serialThreshold) {
+        this.serialThreshold = Math.max(0, serialThreshold);
+    }
+
+    public int getSerialThreshold() {
+        return serialThreshold;
+    }
+
+    public int getTeamSize() {
+        return teamSize;
+    }
+
+    /**
+     * 停止所有工作线程
+     */
+    public void shutdown() {
+        if (shutdown) return;
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 工作线程：等待新的 generation，处理自己负责的区间后报告完成
+     */
+    private final class Worker {
+        private final int member;
+        private Thread thread;
+        private volatile boolean parked;
+
+        Worker(int member) {
+            this.member = member;
+        }
+
+        void loop() {
+            int seen = 0;
+            while (true) {
+                int spins = 0;
+                while (generation == seen && !shutdown) {
+                    if (spins < spinLimit) {
+                        spins++;
+                        Thread.onSpinWait();
+                    } else {
+                        parked = true;
+                        if (generation == seen && !shutdown) {
+                            LockSupport.park(WorkerTeam.this);
+                        }
+                        parked = false;
+                    }
+                }
+                if (shutdown) return;
+                seen = generation;
+
+                try {
+                    runChunk(member);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                if (pending.decrementAndGet() == 0 && callerParked) {
+                    LockSupport.unpark(caller);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * 世界分块：把世界划分为固定大小的区块，并标记哪些区块以全频率模拟。
+ * 相机视口和关注点（通常是玩家）附近的区块为活跃区块，其余区块为休眠区块，
+ * 由各系统自行决定休眠区块的降频方式（如物理每 N 帧推进一次）。
+ */
+public class WorldPartition {
+    private final float chunkSize;
+    private final float invChunkSize;
+    private int columns;
+    private int rows;
+    private boolean[] active;
+    private int activeCount;
+
+    public WorldPartition(float worldWidth, float worldHeight, float chunkSize) {
+        this.chunkSize = chunkSize;
+        this.invChunkSize = 1.0f / chunkSize;
+        resize(worldWidth, worldHeight);
+    }
+
+    /**
+     * 世界尺寸变化时重新划分区块，默认全部活跃
+     */
+    public void resize(float worldWidth, float worldHeight) {
+        this.columns = Math.max(1, (int) Math.ceil(worldWidth * invChunkSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight * invChunkSize));
+        this.active = new boolean[columns * rows];
+        Arrays.fill(active, true);
+        this.activeCount = active.length;
+    }
+
+    /**
+     * 开始新一帧的活跃区域标记：清空所有标记
+     */
+    public void beginFrame() {
+        Arrays.fill(active, false);
+        activeCount = 0;
+    }
+
+    /**
+     * 将与矩形相交、并向外扩展 marginChunks 个区块的范围标记为活跃
+     */
+    public void markActiveRect(float minX, float minY, float maxX, float maxY, int marginChunks) {
+        int c0 = clampColumn((int) Math.floor(minX * invChunkSize) - marginChunks);
+        int c1 = clampColumn((int) Math.floor(maxX * invChunkSize) + marginChunks);
+        int r0 = clampRow((int) Math.floor(minY * invChunkSize) - marginChunks);
+        int r1 = clampRow((int) Math.floor(maxY * invChunkSize) + marginChunks);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int index = r * columns + c;
+                if (!active[index]) {
+                    active[index] = true;
+                    activeCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 将关注点周围 radiusChunks 个区块标记为活跃
+     */
+    public void markActiveAround(float x, float y, int radiusChunks) {
+        markActiveRect(x, y, x, y, radiusChunks);
+    }
+
+    /**
+     * 世界坐标所在区块是否以全频率模拟（世界外的坐标归入最近的边缘区块）
+     */
+    public boolean isActive(float x, float y) {
+        return active[chunkIndex(x, y)];
+    }
+
+    public int chunkIndex(float x, float y) {
+        int c = clampColumn((int) Math.floor(x * invChunkSize));
+        int r = clampRow((int) Math.floor(y * invChunkSize));
+        return r * columns + c;
+    }
+
+    private int clampColumn(int c) {
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+    private int clampRow(int r) {
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    public float getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return active.length;
+    }
+
+    public int getActiveChunkCount() {
+        return activeCount;
+    }
+}
@@ -0,0 +1,194 @@
+package com.gameengine.example;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.config.GameConfig;
+import com.gameengine.core.GameLogic;
+import com.gameengine.core.GameObject;
+import com.gameengine.core.PhysicsSystem;
+import com.gameengine.core.SpatialGrid;
+import com.gameengine.math.Vector2;
+import com.gameengine.scene.Scene;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * AI 避障基准测试：无窗口运行，比较三种避障方式的耗时和效果
+ *   LEGACY     —— 原先逐对比较的 processAvoidanceForPlayer（O(n²)，仅比较 j > i）
+ *   SEPARATION —— 网格加速的对称排斥力（默认模式）
+ *   CROWD      —— ORCA 人群避障
+ * 所有 AI 都不挂 AIComponent，每帧全部参与计算，测的是求解器本身的吞吐。
+ * 用法：AvoidanceBenchmark [数量列表，如 1000,5000,10000] [帧数]
+ */
+public class AvoidanceBenchmark {
+    private static final float DT = 1.0f / 60.0f;
+    private static final int LEGACY_MAX_AGENTS = 2000;  // 逐对比较超过该数量时耗时过长，跳过
+
+    private enum Mode { LEGACY, SEPARATION, CROWD }
+
+    public static void main(String[] args) {
+        int[] counts = {1000, 2000, 5000, 10000};
+        int ticks = 120;
+        if (args != null && args.length > 0) {
+            String[] parts = args[0].split(",");
+            counts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                counts[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+        if (args != null && args.length > 1) {
+            ticks = Integer.parseInt(args[1]);
+        }
+
+        System.out.println("CPU 核数: " + Runtime.getRuntime().availableProcessors() + ", 帧数: " + ticks);
+        System.out.println(String.format("%-11s %7s %12s %12s %10s", "模式", "数量", "避障ms/帧", "最大ms/帧", "重叠对数"));
+        for (int count : counts) {
+            for (Mode mode : Mode.values()) {
+                if (mode == Mode.LEGACY && count > LEGACY_MAX_AGENTS) continue;
+                run(mode, count, ticks);
+            }
+        }
+    }
+
+    private static void run(Mode mode, int count, int ticks) {
+        Scene scene = new Scene("AvoidanceBenchmark");
+        scene.setWorldBounds(GameConfig.WORLD_WIDTH, GameConfig.WORLD_HEIGHT);
+        float centerX = GameConfig.WORLD_WIDTH / 2.0f;
+        float centerY = GameConfig.WORLD_HEIGHT / 2.0f;
+
+        GameObject player = new GameObject("Player");
+        player.addComponent(new TransformComponent(new Vector2(centerX, centerY)));
+        player.addComponent(new PhysicsComponent());
+        scene.addGameObject(player);
+
+        // AI 均匀分布在玩家周围的圆盘内，平均间距约 30 像素
+        Random random = new Random(42);
+        float spawnRadius = (float) Math.sqrt(count * 30f * 30f / Math.PI);
+        for (int i = 0; i < count; i++) {
+            float angle = random.nextFloat() * (float) (Math.PI * 2);
+            float r = spawnRadius * (float) Math.sqrt(random.nextFloat());
+            GameObject ai = new GameObject("AIPlayer");
+            ai.addComponent(new TransformComponent(new Vector2(
+                    centerX + (float) Math.cos(angle) * r, centerY + (float) Math.sin(angle) * r)));
+            PhysicsComponent physics = ai.addComponent(new PhysicsComponent(0.5f));
+            physics.setFriction(0.98f);
+            scene.addGameObject(ai);
+        }
+        scene.update(0f);
+
+        GameLogic logic = new GameLogic(scene);
+        logic.setCrowdSimulation(mode == Mode.CROWD);
+        PhysicsSystem physicsSystem = new PhysicsSystem(scene, GameConfig.WORLD_WIDTH, GameConfig.WORLD_HEIGHT);
+
+        long total = 0;
+        long worst = 0;
+        int measured = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            logic.handleAIPlayerMovement(DT);
+            long t0 = System.nanoTime();
+            if (mode == Mode.LEGACY) {
+                List<GameObject> aiPlayers = logic.getAIPlayers();
+                for (int i = 0; i < aiPlayers.size(); i++) {
+                    legacyAvoidance(aiPlayers, i, DT);
+                }
+            } else {
+                logic.handleAIPlayerAvoidance(DT);
+            }
+            long elapsed = System.nanoTime() - t0;
+            // 前四分之一的帧用于 JIT 预热，不计入统计
+            if (tick >= ticks / 4) {
+                total += elapsed;
+                worst = Math.max(worst, elapsed);
+                measured++;
+            }
+            physicsSystem.update(DT);
+        }
+
+        int overlaps = countOverlaps(logic.getAIPlayers(), GameConfig.AI_RVO_RADIUS * 2);
+        System.out.println(String.format("%-11s %7d %12.3f %12.3f %10d",
+                mode, count, total / 1e6 / Math.max(1, measured), worst / 1e6, overlaps));
+
+        physicsSystem.cleanup();
+        logic.cleanup();
+    }
+
+    // 统计距离小于 minDistance 的 AI 对数
+    private static int countOverlaps(List<GameObject> aiPlayers, float minDistance) {
+        int n = aiPlayers.size();
+        float[] xs = new float[n];
+        float[] ys = new float[n];
+        for (int i = 0; i < n; i++) {
+            Vector2 pos = aiPlayers.get(i).getComponent(TransformComponent.class).getPosition();
+            xs[i] = pos.x;
+            ys[i] = pos.y;
+        }
+        SpatialGrid grid = new SpatialGrid(minDistance);
+        grid.build(xs, ys, n);
+        int[] candidates = new int[512];
+        float minSq = minDistance * minDistance;
+        int overlaps = 0;
+        for (int i = 0; i < n; i++) {
+            int found = grid.query(xs[i], ys[i], minDistance, candidates);
+            for (int k = 0; k < found; k++) {
+                int j = candidates[k];
+                if (j <= i) continue;
+                float dx = xs[i] - xs[j];
+                float dy = ys[i] - ys[j];
+                if (dx * dx + dy * dy < minSq) overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    // 原 GameLogic.processAvoidanceForPlayer 的实现，保留用于对比
+    private static void legacyAvoidance(List<GameObject> aiPlayers, int index, float deltaTime) {
+        GameObject aiPlayer1 = aiPlayers.get(index);
+        TransformComponent transform1 = aiPlayer1.getComponent(TransformComponent.class);
+        PhysicsComponent physics1 = aiPlayer1.getComponent(PhysicsComponent.class);
+
+        if (transform1 == null || physics1 == null) return;
+
+        Vector2 pos1 = transform1.getPosition();
+        Vector2 avoidance = new Vector2();
+
+        for (int j = index + 1; j < aiPlayers.size(); j++) {
+            GameObject aiPlayer2 = aiPlayers.get(j);
+            TransformComponent transform2 = aiPlayer2.getComponent(TransformComponent.class);
+
+            if (transform2 == null) continue;
+
+            Vector2 pos2 = transform2.getPosition();
+            float distance = pos1.distance(pos2);
+
+            if (distance < 80 && distance > 0) {
+                Vector2 direction = pos1.subtract(pos2).normalize();
+                float strength = (80 - distance) / 80.0f;
+                avoidance = avoidance.add(direction.multiply(strength * 50));
+            }
+        }
+
+        if (avoidance.magnitude() > 0) {
+            Vector2 currentVelocity = physics1.getVelocity();
+            float lerpFactor = 0.15f;
+            Vector2 avoidanceDirection = avoidance.normalize();
+            float avoidanceStrength = Math.min(avoidance.magnitude(), 50f);
+
+            Vector2 targetVelocity = currentVelocity.add(
+                    avoidanceDirection.multiply(avoidanceStrength * deltaTime * 10)
+            );
+
+            Vector2 newVelocity = new Vector2(
+                    currentVelocity.x + (targetVelocity.x - currentVelocity.x) * lerpFactor,
+                    currentVelocity.y + (targetVelocity.y - currentVelocity.y) * lerpFactor
+            );
+
+            float maxSpeed = 150f;
+            if (newVelocity.magnitude() > maxSpeed) {
+                newVelocity = newVelocity.normalize().multiply(maxSpeed);
+            }
+
+            physics1.setVelocity(newVelocity);
+        }
+    }
+}
@@ -38,6 +38,16 @@ public final class EntityFactory {
                 renderer.drawRect(basePosition.x - 13, basePosition.y - 5, 6, 12, 1.0f, 0.8f, 0.0f, 1.0f);
                 renderer.drawRect(basePosition.x + 7, basePosition.y - 5, 6, 12, 0.0f, 1.0f, 0.0f, 1.0f);
             }
+            @Override
+            public boolean getRenderBounds(float[] out) {
+                if (basePosition == null) return false;
+                // 身体、头部和左右手臂的外接矩形
+                out[0] = basePosition.x - 13;
+                out[1] = basePosition.y - 22;
+                out[2] = basePosition.x + 13;
+                out[3] = basePosition.y + 10;
+                return true;
+            }
         };
     }
 
@@ -5,7 +5,12 @@ import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.ParticleSystem;
+import com.gameengine.core.WaveSpawner;
+import com.gameengine.core.WorldPartition;
+import com.gameengine.config.GameConfig;
+import com.gameengine.graphics.Camera;
 import com.gameengine.graphics.IRenderer;
+import com.gameengine.graphics.TextBuilder;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
@@ -14,16 +19,18 @@ import java.util.*;
 /**
  * 游戏主场景：包含玩家控制、AI行为、碰撞检测和粒子效果
  * 这是游戏的核心玩法场景
+ * 世界大于窗口，相机跟随玩家滚动；视口和玩家附近的区块全频率模拟
  */
 public class GameScene extends Scene {
     private final GameEngine engine;
     private IRenderer renderer;
     private Random random;
-    private float time;
+    private WaveSpawner waveSpawner;    // 波次生成器（带对象池）
+    private final TextBuilder waveText = new TextBuilder();    // 波次文字复用的拼接器
     private GameLogic gameLogic;
-    private ParticleSystem playerParticles; // 玩家粒子效果
-    private List<ParticleSystem> collisionParticles;    // 碰撞粒子效果
-    private Map<GameObject, ParticleSystem> aiPlayerParticles;  // AI玩家粒子效果映射
+    private final ParticleSystem.Config aiGlowConfig = ParticleSystem.Config.light();  // AI玩家光晕粒子（所有AI共用）
+    private float statsTimer;   // 统计输出计时器
+    private final boolean logStats = GameConfig.STATS_LOGGING || Boolean.getBoolean("gameengine.logStats");
     private boolean waitingReturn;  // 等待返回菜单状态
     private float waitInputTimer;   // 输入冷却计时器
     private float freezeTimer;      // 冻结计时器
@@ -33,6 +40,7 @@ public class GameScene extends Scene {
     public GameScene(GameEngine engine) {
         super("GameScene");
         this.engine = engine;
+        setWorldBounds(GameConfig.WORLD_WIDTH, GameConfig.WORLD_HEIGHT);
     }
 
     @Override
@@ -40,33 +48,30 @@ public class GameScene extends Scene {
         super.initialize();
         this.renderer = engine.getRenderer();
         this.random = new Random();
-        this.time = 0;
         // 初始化游戏逻辑系统
         this.gameLogic = new GameLogic(this);
         this.gameLogic.setGameEngine(engine);
         this.waitingReturn = false;
         this.waitInputTimer = 0f;
         this.freezeTimer = 0f;
+        renderer.getCamera().setWorldBounds(getWorldWidth(), getWorldHeight());
 
         // 创建游戏对象
         createPlayer();
-        createAIPlayers();
         createDecorations();
+        waveSpawner = new WaveSpawner(this, this::createAIPlayer, random);
+        waveSpawner.queueSpawns(GameConfig.ENEMY_INITIAL_COUNT);
 
-        // 初始化粒子系统
-        collisionParticles = new ArrayList<>();
-        aiPlayerParticles = new HashMap<>();
+        followPlayer();
 
-        // 创建玩家粒子系统
-        playerParticles = new ParticleSystem(renderer, new Vector2(renderer.getWidth() / 2.0f, renderer.getHeight() / 2.0f));
-        playerParticles.setActive(true);
-        
     }
 
     @Override
     public void update(float deltaTime) {
+        // 结束画面定格时暂停所有粒子
+        getParticleManager().setPaused(waitingReturn && freezeTimer >= freezeDelay);
         super.update(deltaTime);
-        time += deltaTime;
+        updateActiveChunks();
 
         // 更新游戏逻辑
         gameLogic.handlePlayerInput(deltaTime);
@@ -98,9 +103,10 @@ public class GameScene extends Scene {
                     cfg.burstGMin = 0.0f;
                     cfg.burstGMax = 0.05f;
                     cfg.burstB = 0.0f;
-                    ParticleSystem explosion = new ParticleSystem(renderer, transform.getPosition(), cfg);
+                    cfg.priority = ParticleSystem.PRIORITY_HIGH;
+                    ParticleSystem explosion = getParticleManager().createEmitter(transform.getPosition(), cfg);
                     explosion.burst(180);
-                    collisionParticles.add(explosion);
+                    explosion.release();
                     waitingReturn = true;
                     waitInputTimer = 0f;
                     freezeTimer = 0f;
@@ -108,7 +114,7 @@ public class GameScene extends Scene {
             }
         }
 
-        updateParticles(deltaTime);
+        logStats(deltaTime);
 
         // 处理返回菜单的输入
         if (waitingReturn) {
@@ -122,89 +128,86 @@ public class GameScene extends Scene {
             return;
         }
 
-        // 定期生成AI玩家
-        if (time >= 1.0f) {
-            createAIPlayer();
-            time = 0;
+        // 按波次生成AI玩家
+        if (!gameLogic.isGameOver()) {
+            GameObject player = gameLogic.getUserPlayer();
+            TransformComponent transform = player != null ? player.getComponent(TransformComponent.class) : null;
+            Vector2 center = transform != null ? transform.getPosition()
+                    : new Vector2(getWorldWidth() / 2.0f, getWorldHeight() / 2.0f);
+            waveSpawner.update(deltaTime, center);
         }
     }
 
     /**
-     * 更新所有粒子系统
+     * 相机跟随玩家（玩家不存在时保持原位）
      */
-    private void updateParticles(float deltaTime) {
-        boolean freeze = waitingReturn && freezeTimer >= freezeDelay;
-
-        // 更新玩家粒子
-        if (playerParticles != null && !freeze) {
-            GameObject player = gameLogic.getUserPlayer();
-            if (player != null) {
-                TransformComponent transform = player.getComponent(TransformComponent.class);
-                if (transform != null) {
-                    Vector2 playerPos = transform.getPosition();
-                    playerParticles.setPosition(playerPos);
-                }
-            }
-            playerParticles.update(deltaTime);
-        }
-
-        // 更新AI玩家粒子
-        List<GameObject> aiPlayers = gameLogic.getAIPlayers();
-        if (!freeze) {
-            for (GameObject aiPlayer : aiPlayers) {
-                if (aiPlayer != null && aiPlayer.isActive()) {
-                    ParticleSystem particles = aiPlayerParticles.get(aiPlayer);
-                    if (particles == null) {
-                        TransformComponent transform = aiPlayer.getComponent(TransformComponent.class);
-                        if (transform != null) {
-                            particles = new ParticleSystem(renderer, transform.getPosition(), ParticleSystem.Config.light());
-                            particles.setActive(true);
-                            aiPlayerParticles.put(aiPlayer, particles);
-                        }
-                    }
-                    if (particles != null) {
-                        TransformComponent transform = aiPlayer.getComponent(TransformComponent.class);
-                        if (transform != null) {
-                            particles.setPosition(transform.getPosition());
-                        }
-                        particles.update(deltaTime);
-                    }
-                }
-            }
+    private void followPlayer() {
+        GameObject player = gameLogic.getUserPlayer();
+        TransformComponent transform = player != null ? player.getComponent(TransformComponent.class) : null;
+        if (transform != null) {
+            Vector2 pos = transform.getPosition();
+            renderer.getCamera().follow(pos.x + 10, pos.y + 10);
         }
+    }
 
-        // 清理无效的AI粒子系统
-        List<GameObject> toRemove = new ArrayList<>();
-        for (Map.Entry<GameObject, ParticleSystem> entry : aiPlayerParticles.entrySet()) {
-            if (!entry.getKey().isActive() || !aiPlayers.contains(entry.getKey())) {
-                toRemove.add(entry.getKey());
-            }
-        }
-        for (GameObject removed : toRemove) {
-            aiPlayerParticles.remove(removed);
+    /**
+     * 标记本帧的活跃区块：相机视口及玩家周围
+     */
+    private void updateActiveChunks() {
+        WorldPartition partition = getWorldPartition();
+        if (partition == null) return;
+        Camera camera = renderer.getCamera();
+        int margin = GameConfig.WORLD_ACTIVE_CHUNK_MARGIN;
+        partition.beginFrame();
+        partition.markActiveRect(camera.getX(), camera.getY(), camera.getViewRight(), camera.getViewBottom(), margin);
+        GameObject player = gameLogic.getUserPlayer();
+        TransformComponent transform = player != null ? player.getComponent(TransformComponent.class) : null;
+        if (transform != null) {
+            Vector2 pos = transform.getPosition();
+            partition.markActiveAround(pos.x, pos.y, margin);
         }
+    }
 
-        // 更新碰撞粒子
-        for (int i = collisionParticles.size() - 1; i >= 0; i--) {
-            ParticleSystem ps = collisionParticles.get(i);
-            if (ps != null) {
-                if (!freeze) {
-                    ps.update(deltaTime);
-                }
-            }
+    /**
+     * 调试用：定期输出粒子、发射器和渲染统计，便于观察长时间运行时的内存和绘制开销；
+     * 默认关闭，统计只通过 getStats()/getRenderStats() 查询
+     */
+    private void logStats(float deltaTime) {
+        if (!logStats) return;
+        statsTimer += deltaTime;
+        if (statsTimer >= GameConfig.PARTICLE_STATS_INTERVAL) {
+            statsTimer = 0f;
+            System.out.println(getParticleManager().getStats());
+            System.out.println("渲染：" + renderer.getRenderStats());
         }
     }
 
     @Override
     public void render() {
-        renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.1f, 0.1f, 0.2f, 1.0f);
+        // 物理已推进完毕，此时跟随可避免相机滞后一帧
+        followPlayer();
+        renderer.setLayer(IRenderer.LAYER_BACKGROUND);
+        renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.05f, 0.05f, 0.1f, 1.0f);
 
+        // 世界空间：地面、游戏对象、粒子
+        renderer.setLayer(IRenderer.LAYER_WORLD);
+        renderer.setCameraEnabled(true);
+        renderer.drawRect(0, 0, getWorldWidth(), getWorldHeight(), 0.1f, 0.1f, 0.2f, 1.0f);
+
+        // 游戏对象和所有粒子（粒子由 ParticleManager 一次提交）
         super.render();
 
-        renderParticles();
+        // 屏幕空间：UI
+        renderer.setCameraEnabled(false);
+        renderer.setLayer(IRenderer.LAYER_UI);
 
         // J03: 丰富游戏逻辑: UI
         renderUI();
+        if (waveSpawner != null) {
+            // 放在魔力条和魔力文字下方
+            waveText.clear().append("WAVE ").append(waveSpawner.getWave());
+            renderer.drawText(20, 75, waveText, 0.9f, 0.9f, 0.9f, 1.0f);
+        }
 
         if (gameLogic.isGameOver()) {
             float cx = renderer.getWidth() / 2.0f;
@@ -216,30 +219,6 @@ public class GameScene extends Scene {
         }
     }
 
-    /**
-     * 渲染所有粒子系统
-     */
-    private void renderParticles() {
-        if (playerParticles != null) {
-            int count = playerParticles.getParticleCount();
-            if (count > 0) {
-                playerParticles.render();
-            }
-        }
-
-        for (ParticleSystem ps : aiPlayerParticles.values()) {
-            if (ps != null && ps.getParticleCount() > 0) {
-                ps.render();
-            }
-        }
-
-        for (ParticleSystem ps : collisionParticles) {
-            if (ps != null && ps.getParticleCount() > 0) {
-                ps.render();
-            }
-        }
-    }
-
     /**
      * 创建玩家对象：使用自定义渲染的复杂形状
      * J03: 增加血量组件和技能组件
@@ -260,6 +239,17 @@ public class GameScene extends Scene {
                 renderBodyParts();
             }
 
+            @Override
+            public boolean getRenderBounds(float[] out) {
+                if (basePosition == null) return false;
+                // 身体、头部和左右手臂的外接矩形
+                out[0] = basePosition.x - 13;
+                out[1] = basePosition.y - 22;
+                out[2] = basePosition.x + 13;
+                out[3] = basePosition.y + 10;
+                return true;
+            }
+
             private void updateBodyParts() {
                 TransformComponent transform = getComponent(TransformComponent.class);
                 if (transform != null) {
@@ -293,7 +283,7 @@ public class GameScene extends Scene {
         };
         // J03: 设置场景
         player.setScene(this);
-        player.addComponent(new TransformComponent(new Vector2(renderer.getWidth() / 2.0f, renderer.getHeight() / 2.0f)));
+        player.addComponent(new TransformComponent(new Vector2(getWorldWidth() / 2.0f, getWorldHeight() / 2.0f)));
 
         PhysicsComponent physics = player.addComponent(new PhysicsComponent(1.0f));
         physics.setFriction(0.95f);
@@ -307,45 +297,19 @@ public class GameScene extends Scene {
         // 添加武器组件
         WeaponComponent weapons = player.addComponent(new WeaponComponent());
 
-        addGameObject(player);
-    }
+        // 玩家跟随粒子
+        player.addComponent(new ParticleEmitterComponent(ParticleSystem.Config.defaultPlayer()));
 
-    /**
-     * 创建初始AI玩家群
-     */
-    private void createAIPlayers() {
-        for (int i = 0; i < 30; i++) {
-            createAIPlayer();
-        }
+        addGameObject(player);
     }
 
     /**
-     * 创建单个AI玩家
+     * 创建单个AI玩家（由波次生成器在对象池为空时调用，位置、速度和血量由生成器设置）
      */
-    private void createAIPlayer() {
-        GameObject aiPlayer = new GameObject("AIPlayer") {
-            @Override
-            public void update(float deltaTime) {
-                super.update(deltaTime);
-                updateComponents(deltaTime);
-            }
-
-            @Override
-            public void render() {
-                renderComponents();
-            }
-        };
+    private GameObject createAIPlayer() {
+        GameObject aiPlayer = new GameObject("AIPlayer");
 
-        // 确保AI生成位置远离玩家
-        Vector2 position;
-        do {
-            position = new Vector2(
-                random.nextFloat() * renderer.getWidth(),
-                random.nextFloat() * renderer.getHeight()
-            );
-        } while (position.distance(new Vector2(renderer.getWidth() / 2.0f, renderer.getHeight() / 2.0f)) < 100);
-
-        aiPlayer.addComponent(new TransformComponent(position));
+        aiPlayer.addComponent(new TransformComponent(new Vector2()));
         // 使用工厂统一外观
         RenderComponent rc = aiPlayer.addComponent(new RenderComponent(
             RenderComponent.RenderType.RECTANGLE,
@@ -355,25 +319,31 @@ public class GameScene extends Scene {
         rc.setRenderer(renderer);
 
         PhysicsComponent physics = aiPlayer.addComponent(new PhysicsComponent(0.5f));
-        physics.setVelocity(new Vector2(
-            (random.nextFloat() - 0.5f) * 150,
-            (random.nextFloat() - 0.5f) * 150
-        ));
         physics.setFriction(0.98f);
 
         // 添加生命值组件
         HealthComponent health = aiPlayer.addComponent(new HealthComponent(false));
+        // AI 细节层级调度状态
+        aiPlayer.addComponent(new AIComponent());
+        // 光晕粒子：AI 死亡回收时自动停止，重新生成时重新申请
+        aiPlayer.addComponent(new ParticleEmitterComponent(aiGlowConfig));
         // J03: 设置场景
         aiPlayer.setScene(this);
 
-        addGameObject(aiPlayer);
+        return aiPlayer;
+    }
+
+    public WaveSpawner getWaveSpawner() {
+        return waveSpawner;
     }
 
     /**
      * 创建装饰性对象（背景元素）
      */
     private void createDecorations() {
-        for (int i = 0; i < 5; i++) {
+        // 按世界面积等比例增加装饰物数量（窗口大小的区域约 5 个）
+        int count = (int) (5 * getWorldWidth() * getWorldHeight() / (renderer.getWidth() * renderer.getHeight()));
+        for (int i = 0; i < count; i++) {
             createDecoration();
         }
     }
@@ -393,8 +363,8 @@ public class GameScene extends Scene {
         };
 
         Vector2 position = new Vector2(
-            random.nextFloat() * renderer.getWidth(),
-            random.nextFloat() * renderer.getHeight()
+            random.nextFloat() * getWorldWidth(),
+            random.nextFloat() * getWorldHeight()
         );
 
         decoration.addComponent(new TransformComponent(position));
@@ -411,18 +381,13 @@ public class GameScene extends Scene {
 
     @Override
     public void clear() {
+        if (renderer != null) {
+            renderer.getCamera().reset();
+        }
         if (gameLogic != null) {
             gameLogic.cleanup();
         }
-        if (playerParticles != null) {
-            playerParticles.clear();
-        }
-        if (collisionParticles != null) {
-            for (ParticleSystem ps : collisionParticles) {
-                if (ps != null) ps.clear();
-            }
-            collisionParticles.clear();
-        }
+        // 粒子发射器随场景的 ParticleManager 一起清空
         super.clear();
     }
 }
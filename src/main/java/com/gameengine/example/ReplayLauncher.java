@@ -1,22 +1,51 @@
 package com.gameengine.example;
 
 import com.gameengine.core.GameEngine;
+import com.gameengine.config.GameConfig;
 import com.gameengine.graphics.RenderBackend;
+import com.gameengine.graphics.SoftwareRenderer;
 
 import java.io.File;
 import java.util.Arrays;
 
 /**
  * 回放启动器：独立的回放模式入口点
- * 可以直接从命令行启动，指定录像文件路径
+ * 可以直接从命令行启动，指定录像文件路径；
+ * 加 --software 参数时使用软件渲染器离屏回放（不需要 GL），默认不按实时节流、尽快渲染，结束时保存最后一帧。
+ * 软件回放的其他参数：
+ *   --out 目录        截图保存目录（默认 SOFTWARE_SCREENSHOT_DIR）
+ *   --interval 帧数   每隔多少帧保存一张截图（默认 SOFTWARE_SCREENSHOT_INTERVAL，0 表示只保存最后一帧）
+ *   --frames 帧数     最多渲染的帧数（默认 SOFTWARE_REPLAY_FRAMES）
+ *   --realtime        按目标帧率实时回放
  */
 public class ReplayLauncher {
     public static void main(String[] args) {
         String path = null;
+        boolean software = false;
+        boolean realtime = false;
+        String outDir = GameConfig.SOFTWARE_SCREENSHOT_DIR;
+        int interval = GameConfig.SOFTWARE_SCREENSHOT_INTERVAL;
+        int frames = GameConfig.SOFTWARE_REPLAY_FRAMES;
         // 处理命令行参数
-        if (args != null && args.length > 0) {
-            path = args[0];
-        } else {
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--software".equals(arg)) {
+                    software = true;
+                } else if ("--realtime".equals(arg)) {
+                    realtime = true;
+                } else if ("--out".equals(arg) && i + 1 < args.length) {
+                    outDir = args[++i];
+                } else if ("--interval".equals(arg) && i + 1 < args.length) {
+                    interval = parseCount(args[++i], interval);
+                } else if ("--frames".equals(arg) && i + 1 < args.length) {
+                    frames = parseCount(args[++i], frames);
+                } else if (path == null) {
+                    path = arg;
+                }
+            }
+        }
+        if (path == null) {
             // 如果没有指定文件，自动选择最新的录像文件
             File dir = new File("recordings");
             if (dir.exists() && dir.isDirectory()) {
@@ -36,12 +65,35 @@ public class ReplayLauncher {
         }
 
         // 启动回放引擎
-        GameEngine engine = new GameEngine(1024, 768, "Replay", RenderBackend.GPU);
+        GameEngine engine = new GameEngine(1024, 768, "Replay", software ? RenderBackend.SOFTWARE : RenderBackend.GPU);
+        SoftwareRenderer softwareRenderer = null;
+        if (engine.getRenderer() instanceof SoftwareRenderer) {
+            softwareRenderer = (SoftwareRenderer) engine.getRenderer();
+            softwareRenderer.setFrameLimit(frames);
+            softwareRenderer.setScreenshotDir(outDir);
+            softwareRenderer.setScreenshotInterval(interval);
+            engine.setOffline(!realtime);
+        }
         ReplayScene replay = new ReplayScene(engine, path);
         engine.setScene(replay);
         engine.run();
+        if (softwareRenderer != null && softwareRenderer.getFrameCount() > 0) {
+            String last = outDir + "/final.png";
+            if (softwareRenderer.saveScreenshot(last)) {
+                System.out.println("回放渲染完成：" + softwareRenderer.getFrameCount() + " 帧，最后一帧保存到 " + last);
+            }
+        }
         engine.cleanup();
     }
+
+    private static int parseCount(String value, int fallback) {
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            System.err.println("无效的数字参数: " + value);
+            return fallback;
+        }
+    }
 }
 
 
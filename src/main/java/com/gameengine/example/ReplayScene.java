@@ -24,6 +24,8 @@ public class ReplayScene extends Scene {
     private float time;
     private boolean DEBUG_REPLAY = false;   // 调试模式
     private float debugAccumulator = 0f;
+    private float worldWidth;   // 录像头中的世界尺寸（旧录像没有该字段，为 0 时不滚动）
+    private float worldHeight;
 
     /**
      * 关键帧数据结构：存储某一时刻的所有实体状态
@@ -130,13 +132,20 @@ public class ReplayScene extends Scene {
 
     @Override
     public void render() {
+        renderer.setLayer(IRenderer.LAYER_BACKGROUND);
         renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.06f, 0.06f, 0.08f, 1.0f);
+        renderer.setLayer(IRenderer.LAYER_WORLD);
         if (recordingPath == null) {
             renderFileList();
             return;
         }
         // 基于 Transform 手动绘制（回放对象没有附带 RenderComponent）
+        // 世界大于屏幕时相机跟随回放中的玩家，光标和提示仍按屏幕坐标绘制
+        boolean scrolling = followReplayPlayer();
+        renderer.setCameraEnabled(scrolling);
         super.render();
+        renderer.setCameraEnabled(false);
+        renderer.setLayer(IRenderer.LAYER_UI);
 
         // 新增：渲染鼠标位置
         renderMousePosition();
@@ -146,6 +155,25 @@ public class ReplayScene extends Scene {
         renderer.drawText(renderer.getWidth()/2.0f - w/2.0f, 30, hint, 0.8f, 0.8f, 0.8f, 1.0f);
     }
 
+    /**
+     * 相机跟随回放中的玩家，返回是否需要启用相机
+     */
+    private boolean followReplayPlayer() {
+        if (worldWidth <= 0 || worldHeight <= 0) return false;
+        com.gameengine.graphics.Camera camera = renderer.getCamera();
+        camera.setWorldBounds(worldWidth, worldHeight);
+        for (GameObject obj : objectList) {
+            if (!"Player".equalsIgnoreCase(obj.getName())) continue;
+            TransformComponent tc = obj.getComponent(TransformComponent.class);
+            if (tc != null) {
+                Vector2 pos = tc.getPosition();
+                camera.follow(pos.x + 10, pos.y + 10);
+            }
+            break;
+        }
+        return true;
+    }
+
     /**
      * 新增：渲染鼠标位置
      */
@@ -183,9 +211,17 @@ public class ReplayScene extends Scene {
     private void loadRecording(String path) {
         keyframes.clear();
         mouseEvents.clear(); // 新增：清空鼠标事件
+        worldWidth = 0f;
+        worldHeight = 0f;
         com.gameengine.recording.RecordingStorage storage = new com.gameengine.recording.FileRecordingStorage();
         try {
             for (String line : storage.readLines(path)) {
+                // 世界尺寸（用于相机跟随）
+                if (line.contains("\"type\":\"header\"") && line.contains("\"worldW\"")) {
+                    worldWidth = (float)com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(line, "worldW"));
+                    worldHeight = (float)com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(line, "worldH"));
+                }
+
                 // 新增：解析鼠标事件
                 if (line.contains("\"type\":\"mouse\"")) {
                     MouseEvent mouseEvent = new MouseEvent();
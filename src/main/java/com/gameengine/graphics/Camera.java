@@ -0,0 +1,98 @@
+package com.gameengine.graphics;
+
+import com.gameengine.math.Vector2;
+
+/**
+ * 相机：描述视口在世界中的位置，负责世界坐标与屏幕坐标的转换。
+ * 世界可以大于屏幕，相机跟随目标并限制在世界边界内。
+ */
+public class Camera {
+    private float x;    // 视口左上角的世界坐标
+    private float y;
+    private final int viewportWidth;
+    private final int viewportHeight;
+    private float worldWidth;   // 世界边界（<=0 表示不限制）
+    private float worldHeight;
+
+    public Camera(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+        this.x = 0;
+        this.y = 0;
+    }
+
+    /**
+     * 设置世界边界，相机移动时不会超出该范围
+     */
+    public void setWorldBounds(float worldWidth, float worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        setPosition(x, y);
+    }
+
+    /**
+     * 让目标点位于视口中心
+     */
+    public void follow(float targetX, float targetY) {
+        setPosition(targetX - viewportWidth / 2.0f, targetY - viewportHeight / 2.0f);
+    }
+
+    public void setPosition(float x, float y) {
+        if (worldWidth > 0) {
+            x = worldWidth <= viewportWidth ? (worldWidth - viewportWidth) / 2.0f
+                    : Math.max(0, Math.min(x, worldWidth - viewportWidth));
+        }
+        if (worldHeight > 0) {
+            y = worldHeight <= viewportHeight ? (worldHeight - viewportHeight) / 2.0f
+                    : Math.max(0, Math.min(y, worldHeight - viewportHeight));
+        }
+        this.x = x;
+        this.y = y;
+    }
+
+    public void reset() {
+        this.worldWidth = 0;
+        this.worldHeight = 0;
+        this.x = 0;
+        this.y = 0;
+    }
+
+    public Vector2 screenToWorld(Vector2 screen) {
+        return new Vector2(screen.x + x, screen.y + y);
+    }
+
+    public Vector2 worldToScreen(Vector2 world) {
+        return new Vector2(world.x - x, world.y - y);
+    }
+
+    /**
+     * 判断世界坐标中的矩形是否与视口相交
+     */
+    public boolean intersects(float minX, float minY, float maxX, float maxY) {
+        return maxX >= x && minX <= x + viewportWidth && maxY >= y && minY <= y + viewportHeight;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getViewRight() {
+        return x + viewportWidth;
+    }
+
+    public float getViewBottom() {
+        return y + viewportHeight;
+    }
+
+    public int getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public int getViewportHeight() {
+        return viewportHeight;
+    }
+}
@@ -1,25 +1,41 @@
 package com.gameengine.graphics;
 
+import com.gameengine.config.GameConfig;
+import com.gameengine.input.InputEventQueue;
 import com.gameengine.input.InputManager;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GLUtil;
+import org.lwjgl.system.Callback;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.lwjgl.BufferUtils;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * GPU 渲染器实现：使用 LWJGL 和 OpenGL 进行渲染。
  * 处理窗口创建、输入事件、基本图形和文本渲染。
+ * 绘制调用先记录到 RenderCommandBuffer，endFrame 时按层和相机状态排序后写入 QuadBatch 批量提交，
+ * 只在相机状态变化和缓冲写满时提交一次；
+ * 字符打包在 GlyphAtlas 一张纹理中，所有图元共用这张纹理。
+ * 开启多线程渲染（RENDER_THREADED 或 -Dgameengine.renderThread=true）时，GL 上下文和所有 GL 调用
+ * 放在独立的渲染线程上，主循环线程只记录命令缓冲并放入有界队列，渲染跟不上时丢弃最旧的帧。
+ * GLFW 规定 glfwInit、窗口创建和销毁、事件处理和 glfwTerminate 只能在主线程调用，
+ * 因此窗口始终由创建渲染器的线程（主循环线程）创建、处理事件和销毁，渲染线程只通过 glfwMakeContextCurrent 接管上下文。
+ * 输入回调在 glfwPollEvents 内部触发，先写入预分配的事件队列，轮询结束后统一交给 InputManager。
+ * 绘制路径上不查询 glGetError；开启调试模式时优先使用 KHR_debug/ARB_debug_output 回调，
+ * 驱动不支持时退化为每帧结束时检查一次。
  */
 public class GPURenderer implements IRenderer {
     private int width;
@@ -28,10 +44,27 @@ public class GPURenderer implements IRenderer {
     private InputManager inputManager;
     private boolean initialized;
     private long window;    // GLFW 窗口句柄
-    private Map<Character, Integer> charTextures;   // 字符纹理缓存
+    private GlyphAtlas glyphAtlas;  // 字形图集（上下文创建后初始化）
+    private TextLayoutCache textLayouts;    // 文字排版缓存
     private Font font;  // AWT 字体用于文本渲染
     private int fontSize;
-    private boolean texturesPreloaded;  // 纹理是否预加载
+    private final Camera camera;    // 世界相机
+    private boolean cameraEnabled;  // 当前是否应用相机变换
+    private QuadBatch batch;        // 几何图形批处理（上下文创建后初始化）
+    private RenderCommandBuffer commands;       // 本帧记录的命令
+    private RenderCommandBuffer lastCommands;   // 上一帧已提交的命令
+    private final BatchExecutor executor = new BatchExecutor();
+    private final InputEventQueue inputEvents;  // glfwPollEvents 期间回调记录的输入事件
+    // 多线程渲染：渲染线程持有 GL 上下文，从有界队列取出已记录的帧
+    private final boolean threaded;
+    private Thread renderThread;
+    private volatile boolean renderThreadRunning;
+    private ArrayBlockingQueue<RenderCommandBuffer> pendingFrames;
+    private ConcurrentLinkedQueue<RenderCommandBuffer> freeFrames;
+    private static final long RENDER_POLL_MS = 4;   // 渲染线程等待新帧的间隔，期间仍处理窗口事件
+    private final RenderStats renderStats;
+    private final boolean debugMode;    // GL 调试模式
+    private Callback debugCallback;     // 调试输出回调，不支持时为 null
     private static final String PRELOAD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+-=[]{}|;:,.<>?/~` ";
 
     public GPURenderer(int width, int height, String title) {
@@ -41,16 +74,27 @@ public class GPURenderer implements IRenderer {
         this.inputManager = InputManager.getInstance();
         this.initialized = false;
         this.window = 0;
-        this.charTextures = new HashMap<>();
         this.font = new Font(Font.MONOSPACED, Font.BOLD, 32);
         this.fontSize = 32;
-        this.texturesPreloaded = false;
+        this.camera = new Camera(width, height);
+        this.cameraEnabled = false;
+        this.renderStats = new RenderStats();
+        this.commands = new RenderCommandBuffer();
+        this.lastCommands = new RenderCommandBuffer();
+        this.debugMode = GameConfig.RENDER_GL_DEBUG || Boolean.getBoolean("gameengine.glDebug");
+        this.inputEvents = new InputEventQueue(GameConfig.INPUT_QUEUE_CAPACITY);
+        this.threaded = GameConfig.RENDER_THREADED || Boolean.getBoolean("gameengine.renderThread");
 
-        initialize();
+        createWindow();
+        if (threaded) {
+            startRenderThread();
+        } else {
+            initContext();
+        }
     }
 
-    // 初始化 GLFW 和 OpenGL 上下文
-    private void initialize() {
+    // 初始化 GLFW 并创建窗口（只能在主线程调用）
+    private void createWindow() {
         try {
             System.setProperty("java.awt.headless", "true");
             GLFWErrorCallback.createPrint(System.err).set();
@@ -64,6 +108,9 @@ public class GPURenderer implements IRenderer {
             GLFW.glfwWindowHint(GLFW.GLFW_RESIZABLE, GLFW.GLFW_FALSE);
             GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 2);
             GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 1);
+            if (debugMode) {
+                GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_DEBUG_CONTEXT, GLFW.GLFW_TRUE);
+            }
             
             window = GLFW.glfwCreateWindow(width, height, title, MemoryUtil.NULL, MemoryUtil.NULL);
             if (window == MemoryUtil.NULL) {
@@ -88,13 +135,22 @@ public class GPURenderer implements IRenderer {
             }
             
             setupInput();
-            
+            GLFW.glfwShowWindow(window);
+        } catch (Exception e) {
+            throw new RuntimeException("GPU渲染器初始化失败: " + e.getMessage(), e);
+        }
+    }
+
+    // 在当前线程上接管窗口的 GL 上下文并创建所有 GL 资源（多线程渲染时在渲染线程上调用）
+    private void initContext() {
+        try {
             GLFW.glfwMakeContextCurrent(window);
             GL.createCapabilities();
+            if (debugMode) {
+                setupDebugOutput();
+            }
             GLFW.glfwSwapInterval(1);
             
-            GLFW.glfwShowWindow(window);
-            
             GL11.glViewport(0, 0, width, height);
             GL11.glEnable(GL11.GL_BLEND);
             GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
@@ -111,6 +167,7 @@ public class GPURenderer implements IRenderer {
             }
             
             initialized = true;
+            batch = new QuadBatch(GameConfig.RENDER_BATCH_VERTICES, renderStats);
             
             int[] maxTex = new int[1];
             maxTex[0] = GL11.glGetInteger(GL11.GL_MAX_TEXTURE_SIZE);
@@ -122,42 +179,76 @@ public class GPURenderer implements IRenderer {
             System.out.println("渲染器: " + glRenderer);
             System.out.println("最大纹理尺寸: " + maxTex[0]);
             
-            // 仅在上下文确认有效后再预加载纹理
-            preloadTextures();
+            // 仅在上下文确认有效后再创建字形图集并预加载常用字符
+            glyphAtlas = new GlyphAtlas(GameConfig.RENDER_GLYPH_ATLAS_SIZE, font, fontSize);
+            glyphAtlas.preload(PRELOAD_CHARS);
+            batch.setTexture(glyphAtlas.getTextureId(), glyphAtlas.getWhiteU(), glyphAtlas.getWhiteV());
+            textLayouts = new TextLayoutCache(glyphAtlas, fontSize, GameConfig.RENDER_TEXT_CACHE_SIZE);
+            System.out.println("字形图集创建完成: " + glyphAtlas.getGlyphCount() + " 个字符");
         } catch (Exception e) {
             throw new RuntimeException("GPU渲染器初始化失败: " + e.getMessage(), e);
         }
     }
 
-    // 处理输入回调
+    // 注册 GL 调试输出回调（KHR_debug / ARB_debug_output）
+    private void setupDebugOutput() {
+        GLCapabilities caps = GL.getCapabilities();
+        if (caps.OpenGL43 || caps.GL_KHR_debug || caps.GL_ARB_debug_output) {
+            debugCallback = GLUtil.setupDebugMessageCallback(System.err);
+        }
+        if (debugCallback != null) {
+            System.out.println("GL 调试输出已开启");
+        } else {
+            System.out.println("GL 调试输出不可用，改为每帧检查一次 glGetError");
+        }
+    }
+
+    // 调试模式下没有回调时，每帧取出并打印所有积累的错误
+    private void checkFrameErrors() {
+        int err = GL11.glGetError();
+        while (err != GL11.GL_NO_ERROR) {
+            System.err.println("[GPURenderer] GL error: 0x" + Integer.toHexString(err));
+            err = GL11.glGetError();
+        }
+    }
+
+    // 处理输入回调：glfwPollEvents 期间事件先写入队列，轮询结束后由 pollEvents 交给 InputManager
     private void setupInput() {
         GLFW.glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
             if (action == GLFW.GLFW_PRESS) {
-                inputManager.onKeyPressed(key);
+                inputEvents.offer(InputEventQueue.KEY_PRESSED, key, 0, 0);
             } else if (action == GLFW.GLFW_RELEASE) {
-                inputManager.onKeyReleased(key);
+                inputEvents.offer(InputEventQueue.KEY_RELEASED, key, 0, 0);
             }
         });
         
         GLFW.glfwSetMouseButtonCallback(window, (window, button, action, mods) -> {
             if (action == GLFW.GLFW_PRESS) {
-                inputManager.onMousePressed(button);
+                inputEvents.offer(InputEventQueue.MOUSE_PRESSED, button, 0, 0);
             } else if (action == GLFW.GLFW_RELEASE) {
-                inputManager.onMouseReleased(button);
+                inputEvents.offer(InputEventQueue.MOUSE_RELEASED, button, 0, 0);
             }
         });
         
         GLFW.glfwSetCursorPosCallback(window, (window, xpos, ypos) -> {
-            inputManager.onMouseMoved((int)xpos, (int)ypos);
+            inputEvents.offer(InputEventQueue.MOUSE_MOVED, 0, (int)xpos, (int)ypos);
         });
     }
 
-    // 设置投影和模型视图矩阵
+    // 开始记录新的一帧（GL 状态在提交时设置）
     @Override
     public void beginFrame() {
         if (!initialized) return;
-        
+        cameraEnabled = false;
+        commands.reset();
+    }
+
+    /**
+     * 在持有 GL 上下文的线程上提交一帧：设置投影和模型视图矩阵、清屏，按排序提交命令后交换缓冲
+     */
+    private void renderFrame(RenderCommandBuffer frame) {
         GLFW.glfwMakeContextCurrent(window);
+        renderStats.beginFrame();
         
         GL11.glMatrixMode(GL11.GL_PROJECTION);
         GL11.glLoadIdentity();
@@ -176,276 +267,236 @@ public class GPURenderer implements IRenderer {
         GL11.glDisable(GL11.GL_LIGHTING);
         GL11.glDisable(GL11.GL_CULL_FACE);
         GL11.glDisable(GL11.GL_COLOR_MATERIAL);
-        
+
+        renderStats.addStateChanges(frame.submit(executor));
+        renderStats.addCulledObjects(frame.getCulledObjects());
+        batch.flush();
+        renderStats.endFrame();
+        if (debugMode && debugCallback == null) {
+            checkFrameErrors();
+        }
+        GLFW.glfwSwapBuffers(window);   // 交换缓冲区（开启垂直同步时在这里等待）
     }
     
+    // 切换世界空间/屏幕空间：之后记录的命令带上该状态，提交时世界空间按相机位置平移模型视图矩阵
     @Override
-    public void endFrame() {
+    public void setCameraEnabled(boolean enabled) {
         if (!initialized) return;
-        GLFW.glfwSwapBuffers(window);   // 交换缓冲区
+        cameraEnabled = enabled;
+        commands.setCameraEnabled(enabled);
     }
-    
+
     @Override
-    public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
-        if (!initialized) return;
-        
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x, y);
-        GL11.glVertex2f(x + w, y);
-        GL11.glVertex2f(x + w, y + h);
-        GL11.glVertex2f(x, y + h);
-        GL11.glEnd();
-        int err = GL11.glGetError();
-        if (err != GL11.GL_NO_ERROR) {
-            System.err.println("[GPURenderer] drawRect GL error: 0x" + Integer.toHexString(err));
-        }
+    public void setLayer(int layer) {
+        commands.setLayer(layer);
     }
-    
+
+    // 剔除数随命令缓冲传递，多线程渲染时由渲染线程计入统计
     @Override
-    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
-        if (!initialized) return;
-        
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-        GL11.glVertex2f(x, y);
-        
-        for (int i = 0; i <= segments; i++) {
-            float angle = (float) (i * 2.0 * Math.PI / segments);
-            float px = x + (float) (radius * Math.cos(angle));
-            float py = y + (float) (radius * Math.sin(angle));
-            GL11.glVertex2f(px, py);
-        }
-        GL11.glEnd();
+    public void addCulledObjects(int count) {
+        commands.addCulledObjects(count);
     }
-    
+
+    // 多线程渲染时缓冲由渲染线程持有并回收，不对外提供
     @Override
-    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
-        if (!initialized) return;
-        
-        GL11.glLineWidth(2.5f);
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_LINES);
-        GL11.glVertex2f(x1, y1);
-        GL11.glVertex2f(x2, y2);
-        GL11.glEnd();
+    public RenderCommandBuffer getFrameCommands() {
+        return threaded ? null : lastCommands;
     }
-    
+
     @Override
-    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
-        if (!initialized || text == null || text.isEmpty()) return;
-        
-        if (!texturesPreloaded) {
-            preloadTextures();
-        }
-        
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-        
-        float currentX = x;
-        float charHeight = fontSize;
-        float charWidth = fontSize * 0.6f;
-        float spacing = 1.0f;
-        
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == ' ') {
-                currentX += charWidth * 0.5f;
-                continue;
-            }
-            
-            int textureId = getCharTexture(c);
-            if (textureId > 0) {
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-                GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
-                GL11.glColor4f(r, g, b, a);
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(0.0f, 0.0f);
-                GL11.glVertex2f(currentX, y);
-                GL11.glTexCoord2f(1.0f, 0.0f);
-                GL11.glVertex2f(currentX + charWidth, y);
-                GL11.glTexCoord2f(1.0f, 1.0f);
-                GL11.glVertex2f(currentX + charWidth, y + charHeight);
-                GL11.glTexCoord2f(0.0f, 1.0f);
-                GL11.glVertex2f(currentX, y + charHeight);
-                GL11.glEnd();
-            }
-            
-            currentX += charWidth + spacing;
+    public boolean isCameraEnabled() {
+        return cameraEnabled;
+    }
+
+    @Override
+    public Camera getCamera() {
+        return camera;
+    }
+
+    @Override
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    @Override
+    public void endFrame() {
+        if (!initialized) return;
+        commands.setCameraPosition(camera.getX(), camera.getY());
+        if (threaded) {
+            // 交给渲染线程，立即换一个空缓冲继续记录，模拟线程不等待驱动和垂直同步
+            submitFrame(commands);
+            commands = acquireFrame();
+            return;
         }
-        
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        renderFrame(commands);
+        // 本帧命令保留到下一帧结束，供重放和检查
+        RenderCommandBuffer submitted = commands;
+        commands = lastCommands;
+        lastCommands = submitted;
     }
 
-    // 预加载常用字符纹理到GPU
-    private void preloadTextures() {
-        if (!initialized || texturesPreloaded) return;
-        
-        GLFW.glfwMakeContextCurrent(window);
-        
-        int loaded = 0;
-        int failed = 0;
-        
-        for (int i = 0; i < PRELOAD_CHARS.length(); i++) {
-            char c = PRELOAD_CHARS.charAt(i);
-            if (c == ' ') continue;
-            
-            if (!charTextures.containsKey(c)) {
-                int error = GL11.glGetError();
-                while (error != GL11.GL_NO_ERROR) {
-                    error = GL11.glGetError();
-                }
-                
-                int textureId = createCharTexture(c);
-                if (textureId > 0) {
-                    charTextures.put(c, textureId);
-                    loaded++;
-                } else {
-                    failed++;
-                }
+    // 放入待渲染队列；队列已满说明渲染线程跟不上，丢弃最旧的一帧而不是阻塞模拟线程
+    private void submitFrame(RenderCommandBuffer frame) {
+        while (!pendingFrames.offer(frame)) {
+            RenderCommandBuffer stale = pendingFrames.poll();
+            if (stale != null) {
+                freeFrames.offer(stale);
+                renderStats.addDroppedFrame();
             }
         }
-        
-        texturesPreloaded = true;
-        System.out.println("预加载字符纹理完成: " + loaded + " 成功, " + failed + " 失败");
     }
 
-
-    private int getCharTexture(char c) {
-        if (charTextures.containsKey(c)) {
-            return charTextures.get(c);
-        }
-        
-        if (!texturesPreloaded) {
-            preloadTextures();
-            if (charTextures.containsKey(c)) {
-                return charTextures.get(c);
+    // 取一个空闲缓冲；缓冲数量按队列长度预留，正常情况下不会取空
+    private RenderCommandBuffer acquireFrame() {
+        RenderCommandBuffer frame = freeFrames.poll();
+        if (frame == null) {
+            frame = pendingFrames.poll();
+            if (frame != null) {
+                renderStats.addDroppedFrame();
+            } else {
+                frame = new RenderCommandBuffer();
             }
         }
-        
-        if (!initialized) {
-            return 0;
+        return frame;
+    }
+
+    /**
+     * 启动渲染线程：窗口已在主线程创建，GL 上下文和所有 GL 资源在渲染线程上创建，构造函数等待初始化完成
+     */
+    private void startRenderThread() {
+        int queued = Math.max(1, GameConfig.RENDER_QUEUE_FRAMES);
+        pendingFrames = new ArrayBlockingQueue<>(queued);
+        freeFrames = new ConcurrentLinkedQueue<>();
+        // 记录中 1 个（commands），渲染中 1 个，排队 queued 个
+        for (int i = 0; i < queued + 1; i++) {
+            freeFrames.offer(new RenderCommandBuffer());
         }
-        
-        GLFW.glfwMakeContextCurrent(window);
-        
-        int error = GL11.glGetError();
-        while (error != GL11.GL_NO_ERROR) {
-            error = GL11.glGetError();
+
+        CountDownLatch ready = new CountDownLatch(1);
+        RuntimeException[] failure = new RuntimeException[1];
+        renderThreadRunning = true;
+        renderThread = new Thread(() -> renderLoop(ready, failure), "render-thread");
+        renderThread.setDaemon(true);
+        renderThread.start();
+        try {
+            ready.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        
-        int textureId = createCharTexture(c);
-        if (textureId > 0) {
-            charTextures.put(c, textureId);
+        if (failure[0] != null) {
+            destroyWindow();
+            throw failure[0];
         }
-        return textureId;
+        System.out.println("渲染线程已启动，帧队列长度 " + queued);
     }
 
-    // 为字符创建纹理（使用AWT生成新图像，上传到OpenGL）
-    private int createCharTexture(char c) {
+    // 渲染线程主循环：取出已记录的帧提交，用完的缓冲放回空闲队列（窗口事件由主线程处理）
+    private void renderLoop(CountDownLatch ready, RuntimeException[] failure) {
         try {
-            BufferedImage img = new BufferedImage(fontSize, fontSize, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2d = img.createGraphics();
-            
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            g2d.setComposite(AlphaComposite.Clear);
-            g2d.fillRect(0, 0, fontSize, fontSize);
-            
-            g2d.setComposite(AlphaComposite.SrcOver);
-            g2d.setColor(new Color(255, 255, 255, 255));
-            g2d.setFont(font);
-            FontMetrics fm = g2d.getFontMetrics();
-            int x = (fontSize - fm.charWidth(c)) / 2;
-            int y = (fontSize - fm.getHeight()) / 2 + fm.getAscent();
-            g2d.drawString(String.valueOf(c), x, y);
-            g2d.dispose();
-            
-            int[] pixels = new int[fontSize * fontSize];
-            img.getRGB(0, 0, fontSize, fontSize, pixels, 0, fontSize);
-            
-            ByteBuffer buffer = ByteBuffer.allocateDirect(fontSize * fontSize * 4);
-            for (int i = 0; i < pixels.length; i++) {
-                int pixel = pixels[i];
-                buffer.put((byte) ((pixel >> 16) & 0xFF));
-                buffer.put((byte) ((pixel >> 8) & 0xFF));
-                buffer.put((byte) (pixel & 0xFF));
-                buffer.put((byte) ((pixel >> 24) & 0xFF));
-            }
-            buffer.flip();
-            
-            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
-            GL11.glEnable(GL11.GL_TEXTURE_2D);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            
-            int prevError = GL11.glGetError();
-            while (prevError != GL11.GL_NO_ERROR) {
-                System.err.println("Clearing OpenGL error before genTextures for '" + c + "': " + Integer.toHexString(prevError));
-                prevError = GL11.glGetError();
-            }
-            
-            int textureId;
+            initContext();
+        } catch (RuntimeException e) {
+            failure[0] = e;
+            renderThreadRunning = false;
+        } finally {
+            ready.countDown();
+        }
+
+        while (renderThreadRunning) {
+            RenderCommandBuffer frame;
             try {
-                IntBuffer ids = BufferUtils.createIntBuffer(1);
-                GL11.glGenTextures(ids);
-                textureId = ids.get(0);
-            } catch (Throwable t) {
-                textureId = GL11.glGenTextures();
+                frame = pendingFrames.poll(RENDER_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
             }
-            
-            if (textureId <= 0) {
-                int genError = GL11.glGetError();
-                System.err.println("glGenTextures returned 0 or negative for char '" + c + "'");
-                if (genError != GL11.GL_NO_ERROR) {
-                    System.err.println("OpenGL error code: 0x" + Integer.toHexString(genError));
-                } else {
-                    System.err.println("No OpenGL error reported, but textureId is invalid. Possible causes:");
-                    System.err.println("  - OpenGL context not properly initialized");
-                    System.err.println("  - Reached texture limit");
-                    System.err.println("  - Graphics driver issue");
-                }
-                return 0;
+            if (frame != null) {
+                renderFrame(frame);
+                freeFrames.offer(frame);
             }
-            
-            int genError = GL11.glGetError();
-            if (genError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error after glGenTextures for '" + c + "': 0x" + Integer.toHexString(genError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
+        }
+
+        if (failure[0] == null) {
+            releaseContextResources();
+        }
+        GLFW.glfwMakeContextCurrent(MemoryUtil.NULL);
+    }
+    
+    // 绘制调用只记录命令，endFrame 时排序后由 BatchExecutor 写入批处理器
+    @Override
+    public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
+        if (!initialized) return;
+        commands.rect(x, y, w, h, r, g, b, a);
+    }
+    
+    @Override
+    public void drawQuads(float[] quads, int count) {
+        if (!initialized || count <= 0) return;
+        commands.quads(quads, count);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (!initialized || segments < 3) return;
+        commands.circle(x, y, radius, segments, r, g, b, a);
+    }
+    
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        if (!initialized) return;
+        commands.line(x1, y1, x2, y2, r, g, b, a);
+    }
+    
+    @Override
+    public void drawText(float x, float y, CharSequence text, float r, float g, float b, float a) {
+        if (!initialized || text == null || text.length() == 0) return;
+        commands.text(x, y, text, r, g, b, a);
+    }
+
+    /**
+     * 把排序后的命令写入批处理器，相机状态变化时先提交已写入的顶点再切换变换
+     */
+    private class BatchExecutor implements RenderCommandBuffer.Executor {
+        @Override
+        public void setCameraEnabled(boolean enabled, float cameraX, float cameraY) {
+            batch.flush();  // 已写入的顶点使用旧的变换
+            GL11.glMatrixMode(GL11.GL_MODELVIEW);
+            GL11.glLoadIdentity();
+            if (enabled) {
+                GL11.glTranslatef(-Math.round(cameraX), -Math.round(cameraY), 0);
             }
-            
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-            
-            int bindError = GL11.glGetError();
-            if (bindError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error binding texture for '" + c + "': " + Integer.toHexString(bindError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
+        }
+
+        @Override
+        public void rect(float x, float y, float w, float h, float r, float g, float b, float a) {
+            batch.quad(x, y, w, h, r, g, b, a);
+        }
+
+        // 分段数达到阈值的圆画成一个圆盘纹理矩形（6 个顶点），其余从单位圆表展开成三角形
+        @Override
+        public void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+            int discSegments = GameConfig.RENDER_CIRCLE_DISC_SEGMENTS;
+            if (discSegments > 0 && segments >= discSegments) {
+                batch.texturedQuad(x - radius, y - radius, radius * 2, radius * 2,
+                        glyphAtlas.getDiscU0(), glyphAtlas.getDiscV0(), glyphAtlas.getDiscU1(), glyphAtlas.getDiscV1(),
+                        r, g, b, a);
+            } else {
+                batch.circle(x, y, radius, segments, r, g, b, a);
             }
-            
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, fontSize, fontSize, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
-            
-            int texError = GL11.glGetError();
-            if (texError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error uploading texture data for '" + c + "': " + Integer.toHexString(texError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
+        }
+
+        @Override
+        public void line(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+            batch.line(x1, y1, x2, y2, GameConfig.RENDER_LINE_WIDTH, r, g, b, a);
+        }
+
+        // 从排版缓存取出字形矩形追加到批次，与其他图形在同一批次中提交
+        @Override
+        public void text(float x, float y, CharSequence text, boolean stable, float r, float g, float b, float a) {
+            // 只缓存固定文字的排版；逐帧变化的数值文字直接按字形排版，不占用缓存也不分配对象
+            if (stable) {
+                textLayouts.submit(batch, textLayouts.get(text), x, y, r, g, b, a);
+            } else {
+                textLayouts.submitDirect(batch, text, x, y, r, g, b, a);
             }
-            
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL11.glDisable(GL11.GL_TEXTURE_2D);
-            
-            return textureId;
-        } catch (Exception e) {
-            System.err.println("Exception creating texture for char '" + c + "': " + e.getMessage());
-            e.printStackTrace();
-            return 0;
         }
     }
 
@@ -530,22 +581,58 @@ public class GPURenderer implements IRenderer {
     @Override
     public void pollEvents() {
         if (initialized && window != MemoryUtil.NULL) {
+            // 窗口事件始终在主线程处理，回调写入的输入随后交给 InputManager
             GLFW.glfwPollEvents();
-            if (GLFW.glfwWindowShouldClose(window)) {
-                GLFW.glfwSetWindowShouldClose(window, true);
-            }
+            inputEvents.drainTo(inputManager);
         }
     }
     
     @Override
     public void cleanup() {
-        for (Integer textureId : charTextures.values()) {
-            if (textureId > 0) {
-                GL11.glDeleteTextures(textureId);
+        if (threaded) {
+            // GL 资源由渲染线程在退出循环后释放，确认线程结束后再在主线程销毁窗口
+            if (renderThread != null) {
+                renderThreadRunning = false;
+                try {
+                    renderThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (renderThread.isAlive()) {
+                    // 上下文仍被渲染线程持有，此时销毁窗口可能导致原生崩溃
+                    System.err.println("渲染线程未结束，跳过窗口销毁");
+                    return;
+                }
+                renderThread = null;
             }
+        } else {
+            releaseContextResources();
         }
-        charTextures.clear();
-        
+        destroyWindow();
+    }
+
+    // 释放 GL 资源（在持有上下文的线程上调用）
+    private void releaseContextResources() {
+        if (batch != null) {
+            batch.dispose();
+            batch = null;
+        }
+        if (textLayouts != null) {
+            textLayouts.clear();
+            textLayouts = null;
+        }
+        if (glyphAtlas != null) {
+            glyphAtlas.dispose();
+            glyphAtlas = null;
+        }
+        if (debugCallback != null) {
+            debugCallback.free();
+            debugCallback = null;
+        }
+    }
+
+    // 销毁窗口并结束 GLFW（只能在主线程调用）
+    private void destroyWindow() {
         if (window != MemoryUtil.NULL) {
             GLFW.glfwDestroyWindow(window);
             window = MemoryUtil.NULL;
@@ -0,0 +1,228 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 字形图集：所有字符光栅化后打包进同一张纹理，按行（shelf）分配空间。
+ * 未预加载的字符在第一次使用时由 GlyphRasterizer 光栅化，并用 glTexSubImage2D 写入空闲位置。
+ * 图集左上角保留一块白色区域，几何图形用它的纹理坐标，与文字共用一张纹理、一个批次；
+ * 旁边是一张抗锯齿的白色圆盘，分段数多的圆直接画成一个带纹理的矩形。
+ */
+public class GlyphAtlas {
+    private static final int PADDING = 1;   // 字形之间的间隔，避免线性过滤采样到相邻字形
+    private static final int WHITE_SIZE = 4;
+    private static final int DISC_SIZE = 64;    // 圆盘纹理边长
+
+    /**
+     * 字形：图集中的纹理坐标，wide 表示全角字符
+     */
+    public static class Glyph {
+        public final float u0, v0, u1, v1;
+        public final boolean wide;
+
+        Glyph(float u0, float v0, float u1, float v1, boolean wide) {
+            this.u0 = u0;
+            this.v0 = v0;
+            this.u1 = u1;
+            this.v1 = v1;
+            this.wide = wide;
+        }
+    }
+
+    private final int size;         // 图集边长（像素）
+    private final int cellSize;     // 每个字形的光栅化尺寸
+    private final GlyphRasterizer rasterizer;
+    // 按字符编码分页的字形表（高 8 位选页，页按需创建），查找时不装箱
+    private final Glyph[][] glyphPages = new Glyph[256][];
+    private int glyphCount;
+    private final ByteBuffer cellBuffer;
+    private int textureId;
+    private final float whiteU, whiteV;
+    private final float discU0, discV0, discU1, discV1;
+
+    // 行分配状态
+    private int shelfX;
+    private int shelfY;
+    private int shelfHeight;
+    private boolean full;
+
+    public GlyphAtlas(int size, Font font, int cellSize) {
+        this.size = size;
+        this.cellSize = cellSize;
+        this.rasterizer = new GlyphRasterizer(font, cellSize);
+        this.cellBuffer = BufferUtils.createByteBuffer(cellSize * cellSize * 4);
+
+        createTexture();
+
+        // 白色区域
+        int[] white = allocate(WHITE_SIZE, WHITE_SIZE);
+        ByteBuffer whitePixels = BufferUtils.createByteBuffer(WHITE_SIZE * WHITE_SIZE * 4);
+        for (int i = 0; i < WHITE_SIZE * WHITE_SIZE * 4; i++) {
+            whitePixels.put((byte) 255);
+        }
+        whitePixels.flip();
+        upload(white[0], white[1], WHITE_SIZE, WHITE_SIZE, whitePixels);
+        this.whiteU = (white[0] + WHITE_SIZE * 0.5f) / size;
+        this.whiteV = (white[1] + WHITE_SIZE * 0.5f) / size;
+
+        // 圆盘区域：四周留 1 像素透明边，纹理坐标只取圆的外接正方形
+        int[] disc = allocate(DISC_SIZE, DISC_SIZE);
+        upload(disc[0], disc[1], DISC_SIZE, DISC_SIZE, rasterizeDisc());
+        this.discU0 = (disc[0] + 1f) / size;
+        this.discV0 = (disc[1] + 1f) / size;
+        this.discU1 = (disc[0] + DISC_SIZE - 1f) / size;
+        this.discV1 = (disc[1] + DISC_SIZE - 1f) / size;
+    }
+
+    private static ByteBuffer rasterizeDisc() {
+        BufferedImage image = new BufferedImage(DISC_SIZE, DISC_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.fillOval(1, 1, DISC_SIZE - 2, DISC_SIZE - 2);
+        g2d.dispose();
+
+        int[] pixels = image.getRGB(0, 0, DISC_SIZE, DISC_SIZE, null, 0, DISC_SIZE);
+        ByteBuffer buffer = BufferUtils.createByteBuffer(DISC_SIZE * DISC_SIZE * 4);
+        for (int pixel : pixels) {
+            buffer.put((byte) 255).put((byte) 255).put((byte) 255);
+            buffer.put((byte) ((pixel >> 24) & 0xFF));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void createTexture() {
+        textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        ByteBuffer empty = BufferUtils.createByteBuffer(size * size * 4);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, size, size, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, empty);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+    }
+
+    /**
+     * 行分配：当前行放不下时换到下一行，图集满时返回 null
+     */
+    private int[] allocate(int w, int h) {
+        if (shelfX + w > size) {
+            shelfX = 0;
+            shelfY += shelfHeight + PADDING;
+            shelfHeight = 0;
+        }
+        if (shelfY + h > size) {
+            return null;
+        }
+        int[] pos = {shelfX, shelfY};
+        shelfX += w + PADDING;
+        shelfHeight = Math.max(shelfHeight, h);
+        return pos;
+    }
+
+    private void upload(int x, int y, int w, int h, ByteBuffer pixels) {
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, w, h, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+    }
+
+    public void preload(String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c != ' ') getGlyph(c);
+        }
+    }
+
+    /**
+     * 获取字形，不存在时光栅化并写入图集；图集已满时返回 null
+     */
+    public Glyph getGlyph(char c) {
+        Glyph[] page = glyphPages[c >>> 8];
+        Glyph glyph = page != null ? page[c & 0xFF] : null;
+        if (glyph != null || full) return glyph;
+
+        int[] pos = allocate(cellSize, cellSize);
+        if (pos == null) {
+            full = true;
+            System.err.println("字形图集已满，无法加入字符 '" + c + "'");
+            return null;
+        }
+        boolean wide = rasterize(c);
+        upload(pos[0], pos[1], cellSize, cellSize, cellBuffer);
+        glyph = new Glyph((float) pos[0] / size, (float) pos[1] / size,
+                (float) (pos[0] + cellSize) / size, (float) (pos[1] + cellSize) / size, wide);
+        if (page == null) {
+            page = new Glyph[256];
+            glyphPages[c >>> 8] = page;
+        }
+        page[c & 0xFF] = glyph;
+        glyphCount++;
+        return glyph;
+    }
+
+    // 光栅化字符并转为 RGBA 字节，返回是否为全角字符
+    private boolean rasterize(char c) {
+        boolean wide = rasterizer.rasterize(c);
+        cellBuffer.clear();
+        for (int pixel : rasterizer.getPixels()) {
+            cellBuffer.put((byte) ((pixel >> 16) & 0xFF));
+            cellBuffer.put((byte) ((pixel >> 8) & 0xFF));
+            cellBuffer.put((byte) (pixel & 0xFF));
+            cellBuffer.put((byte) ((pixel >> 24) & 0xFF));
+        }
+        cellBuffer.flip();
+        return wide;
+    }
+
+    public int getTextureId() {
+        return textureId;
+    }
+
+    public float getWhiteU() {
+        return whiteU;
+    }
+
+    public float getWhiteV() {
+        return whiteV;
+    }
+
+    public float getDiscU0() {
+        return discU0;
+    }
+
+    public float getDiscV0() {
+        return discV0;
+    }
+
+    public float getDiscU1() {
+        return discU1;
+    }
+
+    public float getDiscV1() {
+        return discV1;
+    }
+
+    public int getGlyphCount() {
+        return glyphCount;
+    }
+
+    public void dispose() {
+        if (textureId > 0) {
+            GL11.glDeleteTextures(textureId);
+            textureId = 0;
+        }
+        Arrays.fill(glyphPages, null);
+        glyphCount = 0;
+    }
+}
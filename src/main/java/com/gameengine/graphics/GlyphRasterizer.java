@@ -0,0 +1,82 @@
+package com.gameengine.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * 字形光栅化：用 AWT 把单个字符居中绘制到 cellSize × cellSize 的单元格，输出 ARGB 像素。
+ * 主字体无法显示的字符（如中文）改用支持 CJK 的后备字体。
+ * 不依赖 OpenGL，GPU 的字形图集和软件渲染器共用同一份字形。
+ */
+public class GlyphRasterizer {
+    private static final String[] CJK_FONT_CANDIDATES = {
+        "Microsoft YaHei", "SimHei", "PingFang SC", "Noto Sans CJK SC", "WenQuanYi Micro Hei", "Source Han Sans SC"
+    };
+
+    private final int cellSize;
+    private final Font font;
+    private final Font fallbackFont;
+    private final BufferedImage cellImage;
+    private final int[] cellPixels;
+
+    public GlyphRasterizer(Font font, int cellSize) {
+        this.font = font;
+        this.cellSize = cellSize;
+        this.fallbackFont = findFallbackFont(font);
+        this.cellImage = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+        this.cellPixels = new int[cellSize * cellSize];
+    }
+
+    // 选择能显示中文的后备字体
+    private static Font findFallbackFont(Font font) {
+        try {
+            String[] families = GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+            for (String candidate : CJK_FONT_CANDIDATES) {
+                for (String family : families) {
+                    if (family.equalsIgnoreCase(candidate)) {
+                        Font f = new Font(family, font.getStyle(), font.getSize());
+                        if (f.canDisplay('中')) return f;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // 逻辑字体 Dialog 会映射到系统中可用的 CJK 字体
+        return new Font(Font.DIALOG, font.getStyle(), font.getSize());
+    }
+
+    /**
+     * 把字符光栅化到单元格（白色，透明度即覆盖率），返回是否为全角字符；结果通过 getPixels 读取
+     */
+    public boolean rasterize(char c) {
+        Font f = font.canDisplay(c) ? font : fallbackFont;
+        Graphics2D g2d = cellImage.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fillRect(0, 0, cellSize, cellSize);
+
+        g2d.setComposite(AlphaComposite.SrcOver);
+        g2d.setColor(new Color(255, 255, 255, 255));
+        g2d.setFont(f);
+        FontMetrics fm = g2d.getFontMetrics();
+        int charWidth = fm.charWidth(c);
+        int x = (cellSize - charWidth) / 2;
+        int y = (cellSize - fm.getHeight()) / 2 + fm.getAscent();
+        g2d.drawString(String.valueOf(c), x, y);
+        g2d.dispose();
+
+        cellImage.getRGB(0, 0, cellSize, cellSize, cellPixels, 0, cellSize);
+        return charWidth > cellSize * 0.75f;
+    }
+
+    // 上一次光栅化的 ARGB 像素，下次调用 rasterize 时覆盖
+    public int[] getPixels() {
+        return cellPixels;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+}
@@ -4,13 +4,27 @@ package com.gameengine.graphics;
  * 渲染器接口：抽象渲染操作，支持不同后端（如 GPU）。
  */
 public interface IRenderer {
+    // 绘制层：层小的先画，同一层内世界空间命令先于屏幕空间命令，其余按调用顺序
+    int LAYER_BACKGROUND = -1;
+    int LAYER_WORLD = 0;
+    int LAYER_UI = 1;
+
     void beginFrame();  // 开始渲染帧
     void endFrame();    // 结束渲染帧
     
     void drawRect(float x, float y, float width, float height, float r, float g, float b, float a);
     void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a);
     void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a);
-    void drawText(float x, float y, String text, float r, float g, float b, float a);
+    void drawText(float x, float y, CharSequence text, float r, float g, float b, float a);   // 可传入可复用的 TextBuilder
+    void drawQuads(float[] quads, int count);   // 批量绘制 count 个矩形，每个依次为 x, y, w, h, r, g, b, a
+
+    Camera getCamera();     // 世界相机
+    void setCameraEnabled(boolean enabled); // 之后的绘制是否应用相机变换（每帧开始时关闭）
+    boolean isCameraEnabled();
+    void setLayer(int layer);   // 之后的绘制所在的层（每帧开始时为 LAYER_WORLD）
+    RenderCommandBuffer getFrameCommands();    // 上一帧排序后的渲染命令（用于重放和检查，多线程渲染时为 null）
+    RenderStats getRenderStats();   // 上一帧的绘制统计
+    void addCulledObjects(int count);   // 记录本帧视口剔除跳过的对象数，计入绘制统计
     
     boolean shouldClose();  // 窗口是否应该关闭
     void pollEvents();  // 处理输入事件
@@ -0,0 +1,213 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.FloatBuffer;
+
+/**
+ * 三角形批处理器：把矩形、圆、线段和文字展开成三角形顶点（位置 + 纹理坐标 + 颜色），追加到常驻的 FloatBuffer 中，
+ * 缓冲写满或渲染状态改变（切换相机、结束帧）时用一次 glDrawArrays 提交。
+ * 所有图元共用字形图集一张纹理：几何图形采样图集中的白色区域，因此文字和图形可以在同一批次中交错。
+ * 支持 VBO 时上传到动态顶点缓冲（每次提交前重新分配存储以避免等待 GPU），否则使用客户端顶点数组。
+ */
+public class QuadBatch {
+    private static final int FLOATS_PER_VERTEX = 8;     // x, y, u, v, r, g, b, a
+    private static final int STRIDE = FLOATS_PER_VERTEX * 4;
+    private static final int MAX_CIRCLE_SEGMENTS = 256; // 单位圆表缓存的最大分段数
+
+    private final int maxVertices;
+    private final FloatBuffer buffer;
+    private final RenderStats stats;
+    private final boolean useVbo;
+    private int vbo;
+    private int vertexCount;
+    private int textureId;      // 批次使用的纹理（字形图集）
+    private float whiteU, whiteV;   // 纹理中白色区域的坐标，用于无纹理的图形
+    private final float[][] unitCircles = new float[MAX_CIRCLE_SEGMENTS + 1][];  // 按分段数缓存的单位圆顶点 cos, sin
+
+    public QuadBatch(int maxVertices, RenderStats stats) {
+        // 顶点数取 3 的倍数，保证三角形不会跨越两次提交
+        this.maxVertices = Math.max(6, maxVertices - maxVertices % 3);
+        this.buffer = BufferUtils.createFloatBuffer(this.maxVertices * FLOATS_PER_VERTEX);
+        this.stats = stats;
+        this.useVbo = GL.getCapabilities().OpenGL15;
+        if (useVbo) {
+            vbo = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) this.maxVertices * STRIDE, GL15.GL_STREAM_DRAW);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        }
+    }
+
+    /**
+     * 设置批次纹理及其中白色区域的纹理坐标
+     */
+    public void setTexture(int textureId, float whiteU, float whiteV) {
+        flush();
+        this.textureId = textureId;
+        this.whiteU = whiteU;
+        this.whiteV = whiteV;
+    }
+
+    // 保证还能写入 vertices 个顶点，不够时先提交
+    private void ensureRoom(int vertices) {
+        if (vertexCount + vertices > maxVertices) {
+            flush();
+        }
+    }
+
+    private void vertex(float x, float y, float r, float g, float b, float a) {
+        buffer.put(x).put(y).put(whiteU).put(whiteV).put(r).put(g).put(b).put(a);
+        vertexCount++;
+    }
+
+    private void vertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+        buffer.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+        vertexCount++;
+    }
+
+    public void triangle(float x1, float y1, float x2, float y2, float x3, float y3,
+                         float r, float g, float b, float a) {
+        ensureRoom(3);
+        vertex(x1, y1, r, g, b, a);
+        vertex(x2, y2, r, g, b, a);
+        vertex(x3, y3, r, g, b, a);
+    }
+
+    public void quad(float x, float y, float w, float h, float r, float g, float b, float a) {
+        ensureRoom(6);
+        vertex(x, y, r, g, b, a);
+        vertex(x + w, y, r, g, b, a);
+        vertex(x + w, y + h, r, g, b, a);
+        vertex(x, y, r, g, b, a);
+        vertex(x + w, y + h, r, g, b, a);
+        vertex(x, y + h, r, g, b, a);
+    }
+
+    // 单位圆顶点表：第一次使用某个分段数时计算，之后每个圆只做缩放和平移
+    private float[] unitCircle(int segments) {
+        float[] table = unitCircles[segments];
+        if (table == null) {
+            table = new float[(segments + 1) * 2];
+            for (int i = 0; i < segments; i++) {
+                double angle = i * 2.0 * Math.PI / segments;
+                table[i * 2] = (float) Math.cos(angle);
+                table[i * 2 + 1] = (float) Math.sin(angle);
+            }
+            // 首尾相同，保证圆闭合
+            table[segments * 2] = table[0];
+            table[segments * 2 + 1] = table[1];
+            unitCircles[segments] = table;
+        }
+        return table;
+    }
+
+    // 实心圆：单位圆表按半径缩放后展开成扇形三角形
+    public void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (segments < 3) return;
+        float[] table = unitCircle(Math.min(segments, MAX_CIRCLE_SEGMENTS));
+        int n = table.length / 2 - 1;
+        float prevX = x + radius * table[0];
+        float prevY = y + radius * table[1];
+        for (int i = 1; i <= n; i++) {
+            float px = x + radius * table[i * 2];
+            float py = y + radius * table[i * 2 + 1];
+            triangle(x, y, prevX, prevY, px, py, r, g, b, a);
+            prevX = px;
+            prevY = py;
+        }
+    }
+
+    // 带纹理坐标的矩形（文字字形）
+    public void texturedQuad(float x, float y, float w, float h, float u0, float v0, float u1, float v1,
+                             float r, float g, float b, float a) {
+        ensureRoom(6);
+        vertex(x, y, u0, v0, r, g, b, a);
+        vertex(x + w, y, u1, v0, r, g, b, a);
+        vertex(x + w, y + h, u1, v1, r, g, b, a);
+        vertex(x, y, u0, v0, r, g, b, a);
+        vertex(x + w, y + h, u1, v1, r, g, b, a);
+        vertex(x, y + h, u0, v1, r, g, b, a);
+    }
+
+    // 有宽度的线段：沿法线方向展开成矩形
+    public void line(float x1, float y1, float x2, float y2, float thickness, float r, float g, float b, float a) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len < 0.001f) return;
+        float half = thickness * 0.5f / len;
+        float nx = -dy * half;
+        float ny = dx * half;
+        ensureRoom(6);
+        vertex(x1 - nx, y1 - ny, r, g, b, a);
+        vertex(x1 + nx, y1 + ny, r, g, b, a);
+        vertex(x2 + nx, y2 + ny, r, g, b, a);
+        vertex(x1 - nx, y1 - ny, r, g, b, a);
+        vertex(x2 + nx, y2 + ny, r, g, b, a);
+        vertex(x2 - nx, y2 - ny, r, g, b, a);
+    }
+
+    /**
+     * 提交缓冲中的所有顶点
+     */
+    public void flush() {
+        if (vertexCount == 0) return;
+        buffer.flip();
+
+        boolean textured = textureId != 0;
+        if (textured) {
+            GL11.glEnable(GL11.GL_TEXTURE_2D);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+            GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        }
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        if (useVbo) {
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) maxVertices * STRIDE, GL15.GL_STREAM_DRAW);
+            GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, buffer);
+            GL11.glVertexPointer(2, GL11.GL_FLOAT, STRIDE, 0L);
+            if (textured) {
+                GL11.glTexCoordPointer(2, GL11.GL_FLOAT, STRIDE, 2L * 4);
+            }
+            GL11.glColorPointer(4, GL11.GL_FLOAT, STRIDE, 4L * 4);
+        } else {
+            buffer.position(0);
+            GL11.glVertexPointer(2, GL11.GL_FLOAT, STRIDE, buffer);
+            if (textured) {
+                buffer.position(2);
+                GL11.glTexCoordPointer(2, GL11.GL_FLOAT, STRIDE, buffer);
+            }
+            buffer.position(4);
+            GL11.glColorPointer(4, GL11.GL_FLOAT, STRIDE, buffer);
+            buffer.position(0);
+        }
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, vertexCount);
+        if (useVbo) {
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        }
+        GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        if (textured) {
+            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+            GL11.glDisable(GL11.GL_TEXTURE_2D);
+        }
+
+        stats.addDrawCall(vertexCount);
+        buffer.clear();
+        vertexCount = 0;
+    }
+
+    public void dispose() {
+        if (useVbo && vbo != 0) {
+            GL15.glDeleteBuffers(vbo);
+            vbo = 0;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.gameengine.graphics;
 
-// 通过枚举列举后端（目前只支持GPU）
+// 通过枚举列举后端：GPU 窗口渲染，或不依赖 GL 的软件渲染（离屏）
 public enum RenderBackend {
-    GPU
+    GPU,
+    SOFTWARE
 }
 
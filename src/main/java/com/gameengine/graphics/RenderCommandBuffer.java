@@ -0,0 +1,320 @@
+package com.gameengine.graphics;
+
+import java.util.Arrays;
+
+/**
+ * 渲染命令缓冲：记录一帧内的绘制调用（矩形、圆、线段、文字），endFrame 时排序后统一提交。
+ * 每条命令一个排序键：层（高位）→ 渲染状态（世界空间在前，屏幕空间在后）→ 记录顺序（低位），
+ * 同一层内相同状态的命令连续提交，只在状态变化时切换相机变换。
+ * 命令参数紧凑地存放在 float 数组中，文字复制到 char 数组，数组只在容量不够时扩容，帧之间复用。
+ * 帧结束时记录相机位置快照，提交时使用快照而不是相机的当前位置，缓冲可以交给渲染线程提交。
+ * 缓冲保留到下一帧开始前，可以重放到另一个执行器或打印出来检查。
+ */
+public class RenderCommandBuffer {
+    public static final int RECT = 0;
+    public static final int CIRCLE = 1;
+    public static final int LINE = 2;
+    public static final int TEXT = 3;
+    private static final String[] TYPE_NAMES = {"RECT", "CIRCLE", "LINE", "TEXT"};
+
+    // 排序键布局：bit 48~62 层，bit 47 屏幕空间标记，bit 0~31 记录顺序
+    private static final int LAYER_BIAS = 1 << 14;
+    private static final long SCREEN_BIT = 1L << 47;
+
+    /**
+     * 命令执行器：按排序后的顺序接收命令
+     */
+    public interface Executor {
+        void setCameraEnabled(boolean enabled, float cameraX, float cameraY);   // 相机位置为记录该帧时的快照
+        void rect(float x, float y, float w, float h, float r, float g, float b, float a);
+        void circle(float x, float y, float radius, int segments, float r, float g, float b, float a);
+        void line(float x1, float y1, float x2, float y2, float r, float g, float b, float a);
+        // stable 表示记录时传入的是 String（内容固定，可以缓存排版），TextBuilder 等可变文字为 false
+        void text(float x, float y, CharSequence text, boolean stable, float r, float g, float b, float a);
+    }
+
+    // 指向文字存储区的可复用字符序列，提交文字时不产生对象
+    private final class TextView implements CharSequence {
+        private int start;
+        private int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(chars, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, start, length);
+        }
+    }
+
+    private int count;
+    private long[] keys = new long[1024];
+    private int[] types = new int[1024];
+    private int[] offsets = new int[1024];  // 参数在 data 中的起始位置
+    private long[] sorted = new long[1024];
+    private float[] data = new float[1024 * 8];
+    private int dataSize;
+    private char[] chars = new char[1024];
+    private int charSize;
+    private boolean sortedValid;
+    private final TextView textView = new TextView();
+
+    private int layer;
+    private boolean cameraEnabled;
+    private float cameraX;
+    private float cameraY;
+    private int culledObjects;  // 本帧被视口剔除的对象数，随缓冲一起交给提交方
+
+    /**
+     * 清空命令，层和状态恢复默认
+     */
+    public void reset() {
+        count = 0;
+        dataSize = 0;
+        charSize = 0;
+        layer = 0;
+        cameraEnabled = false;
+        culledObjects = 0;
+        sortedValid = false;
+    }
+
+    public void setLayer(int layer) {
+        this.layer = Math.max(-LAYER_BIAS, Math.min(layer, LAYER_BIAS - 1));
+    }
+
+    public int getLayer() {
+        return layer;
+    }
+
+    public void setCameraEnabled(boolean enabled) {
+        this.cameraEnabled = enabled;
+    }
+
+    // 记录本帧的相机位置
+    public void setCameraPosition(float x, float y) {
+        this.cameraX = x;
+        this.cameraY = y;
+    }
+
+    public float getCameraX() {
+        return cameraX;
+    }
+
+    public float getCameraY() {
+        return cameraY;
+    }
+
+    public void addCulledObjects(int count) {
+        culledObjects += count;
+    }
+
+    public int getCulledObjects() {
+        return culledObjects;
+    }
+
+    // 新增一条命令并预留 floats 个参数，返回参数起始位置
+    private int add(int type, int floats) {
+        if (count == keys.length) {
+            int capacity = count * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            sorted = new long[capacity];
+        }
+        if (dataSize + floats > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + floats));
+        }
+        keys[count] = ((long) (layer + LAYER_BIAS) << 48) | (cameraEnabled ? 0 : SCREEN_BIT) | count;
+        types[count] = type;
+        offsets[count] = dataSize;
+        count++;
+        sortedValid = false;
+        int offset = dataSize;
+        dataSize += floats;
+        return offset;
+    }
+
+    private void putColor(int offset, float r, float g, float b, float a) {
+        data[offset] = r;
+        data[offset + 1] = g;
+        data[offset + 2] = b;
+        data[offset + 3] = a;
+    }
+
+    public void rect(float x, float y, float w, float h, float r, float g, float b, float a) {
+        int o = add(RECT, 8);
+        data[o] = x;
+        data[o + 1] = y;
+        data[o + 2] = w;
+        data[o + 3] = h;
+        putColor(o + 4, r, g, b, a);
+    }
+
+    public void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        int o = add(CIRCLE, 8);
+        data[o] = x;
+        data[o + 1] = y;
+        data[o + 2] = radius;
+        data[o + 3] = segments;
+        putColor(o + 4, r, g, b, a);
+    }
+
+    public void line(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        int o = add(LINE, 8);
+        data[o] = x1;
+        data[o + 1] = y1;
+        data[o + 2] = x2;
+        data[o + 3] = y2;
+        putColor(o + 4, r, g, b, a);
+    }
+
+    // 文字参数：x, y, 字符起始位置, 字符数, 颜色, 是否为 String
+    public void text(float x, float y, CharSequence text, float r, float g, float b, float a) {
+        int length = text.length();
+        if (charSize + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            chars[charSize + i] = text.charAt(i);
+        }
+        int o = add(TEXT, 9);
+        data[o] = x;
+        data[o + 1] = y;
+        data[o + 2] = charSize;
+        data[o + 3] = length;
+        putColor(o + 4, r, g, b, a);
+        data[o + 8] = text instanceof String ? 1f : 0f;
+        charSize += length;
+    }
+
+    // 批量矩形：每个依次为 x, y, w, h, r, g, b, a
+    public void quads(float[] quads, int quadCount) {
+        for (int i = 0; i < quadCount; i++) {
+            int base = i * 8;
+            rect(quads[base], quads[base + 1], quads[base + 2], quads[base + 3],
+                    quads[base + 4], quads[base + 5], quads[base + 6], quads[base + 7]);
+        }
+    }
+
+    private void sort() {
+        if (sortedValid) return;
+        System.arraycopy(keys, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        sortedValid = true;
+    }
+
+    /**
+     * 按排序键顺序提交所有命令，返回状态切换次数
+     */
+    public int submit(Executor executor) {
+        sort();
+        int stateChanges = 0;
+        int currentState = -1;
+        for (int i = 0; i < count; i++) {
+            long key = sorted[i];
+            int index = (int) key;
+            int state = (key & SCREEN_BIT) != 0 ? 0 : 1;
+            if (state != currentState) {
+                executor.setCameraEnabled(state == 1, cameraX, cameraY);
+                currentState = state;
+                stateChanges++;
+            }
+
+            int o = offsets[index];
+            float r = data[o + 4], g = data[o + 5], b = data[o + 6], a = data[o + 7];
+            switch (types[index]) {
+                case RECT:
+                    executor.rect(data[o], data[o + 1], data[o + 2], data[o + 3], r, g, b, a);
+                    break;
+                case CIRCLE:
+                    executor.circle(data[o], data[o + 1], data[o + 2], (int) data[o + 3], r, g, b, a);
+                    break;
+                case LINE:
+                    executor.line(data[o], data[o + 1], data[o + 2], data[o + 3], r, g, b, a);
+                    break;
+                case TEXT:
+                    textView.start = (int) data[o + 2];
+                    textView.length = (int) data[o + 3];
+                    executor.text(data[o], data[o + 1], textView, data[o + 8] != 0f, r, g, b, a);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return stateChanges;
+    }
+
+    /**
+     * 重放到另一个渲染器（例如截图或调试用的渲染器），世界空间命令使用目标渲染器自己的相机
+     */
+    public void playback(IRenderer renderer) {
+        submit(new Executor() {
+            @Override
+            public void setCameraEnabled(boolean enabled, float cameraX, float cameraY) {
+                renderer.setCameraEnabled(enabled);
+            }
+
+            @Override
+            public void rect(float x, float y, float w, float h, float r, float g, float b, float a) {
+                renderer.drawRect(x, y, w, h, r, g, b, a);
+            }
+
+            @Override
+            public void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+                renderer.drawCircle(x, y, radius, segments, r, g, b, a);
+            }
+
+            @Override
+            public void line(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+                renderer.drawLine(x1, y1, x2, y2, r, g, b, a);
+            }
+
+            @Override
+            public void text(float x, float y, CharSequence text, boolean stable, float r, float g, float b, float a) {
+                renderer.drawText(x, y, stable ? text.toString() : text, r, g, b, a);
+            }
+        });
+        renderer.setCameraEnabled(false);
+    }
+
+    public int getCommandCount() {
+        return count;
+    }
+
+    /**
+     * 按提交顺序列出命令，用于检查一帧的绘制内容
+     */
+    public String dump() {
+        sort();
+        StringBuilder sb = new StringBuilder();
+        sb.append("渲染命令 ").append(count).append(" 条\n");
+        for (int i = 0; i < count; i++) {
+            long key = sorted[i];
+            int index = (int) key;
+            int o = offsets[index];
+            sb.append(i).append(": 层 ").append((int) (key >>> 48) - LAYER_BIAS)
+              .append((key & SCREEN_BIT) != 0 ? " 屏幕 " : " 世界 ")
+              .append(TYPE_NAMES[types[index]]);
+            if (types[index] == TEXT) {
+                sb.append(" (").append(data[o]).append(", ").append(data[o + 1]).append(") \"")
+                  .append(chars, (int) data[o + 2], (int) data[o + 3]).append('"');
+            } else {
+                sb.append(' ').append(Arrays.toString(Arrays.copyOfRange(data, o, o + 4)));
+            }
+            sb.append(" 颜色 ").append(Arrays.toString(Arrays.copyOfRange(data, o + 4, o + 8))).append('\n');
+        }
+        return sb.toString();
+    }
+}
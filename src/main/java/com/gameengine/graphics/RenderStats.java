@@ -0,0 +1,77 @@
+package com.gameengine.graphics;
+
+/**
+ * 渲染统计：记录每帧的绘制调用次数、提交的顶点数、状态切换次数和视口剔除的对象数。
+ * 帧内累计到当前计数，endFrame 时转存，getter 返回上一完整帧的数据。
+ * 多线程渲染时计数由渲染线程写入、主循环线程读取，转存的字段为 volatile，读取方总能看到最近一次转存的值。
+ */
+public class RenderStats {
+    private int drawCalls;
+    private int vertices;
+    private int stateChanges;
+    private int culledObjects;
+    private volatile int lastDrawCalls;
+    private volatile int lastVertices;
+    private volatile int lastStateChanges;
+    private volatile int lastCulledObjects;
+    private volatile int droppedFrames;     // 累计丢弃的帧数（多线程渲染时）
+
+    public void beginFrame() {
+        drawCalls = 0;
+        vertices = 0;
+        stateChanges = 0;
+        culledObjects = 0;
+    }
+
+    public void endFrame() {
+        lastDrawCalls = drawCalls;
+        lastVertices = vertices;
+        lastStateChanges = stateChanges;
+        lastCulledObjects = culledObjects;
+    }
+
+    // 记录一次绘制调用
+    public void addDrawCall(int vertexCount) {
+        drawCalls++;
+        vertices += vertexCount;
+    }
+
+    public void addStateChanges(int count) {
+        stateChanges += count;
+    }
+
+    public void addCulledObjects(int count) {
+        culledObjects += count;
+    }
+
+    public void addDroppedFrame() {
+        droppedFrames++;
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public int getDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    public int getVertices() {
+        return lastVertices;
+    }
+
+    public int getStateChanges() {
+        return lastStateChanges;
+    }
+
+    public int getCulledObjects() {
+        return lastCulledObjects;
+    }
+
+    @Override
+    public String toString() {
+        String text = "绘制调用 " + lastDrawCalls + "，顶点 " + lastVertices + "，状态切换 " + lastStateChanges
+                + "，剔除对象 " + lastCulledObjects;
+        return droppedFrames > 0 ? text + "，丢弃帧 " + droppedFrames : text;
+    }
+}
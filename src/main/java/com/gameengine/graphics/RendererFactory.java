@@ -8,6 +8,9 @@ public class RendererFactory {
         if (backend == RenderBackend.GPU) {
             return new GPURenderer(width, height, title);
         }
+        if (backend == RenderBackend.SOFTWARE) {
+            return new SoftwareRenderer(width, height, title);
+        }
         throw new IllegalArgumentException("不支持的渲染后端: " + backend);
     }
 }
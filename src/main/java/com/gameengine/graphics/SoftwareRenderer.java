@@ -0,0 +1,546 @@
+package com.gameengine.graphics;
+
+import com.gameengine.config.GameConfig;
+import com.gameengine.core.WorkerTeam;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 软件渲染器：不依赖 OpenGL，用纯 Java 把矩形、圆、线段和位图文字光栅化到 int[] ARGB 帧缓冲，
+ * 用于在没有 GL 的服务器上渲染回放和截图，也可作为批处理、剔除等改动的参考图像。
+ * 绘制调用与 GPU 渲染器一样记录到 RenderCommandBuffer 并按同样的键排序；
+ * endFrame 时先把命令转换为屏幕坐标下的图元并按图块分箱，再由工作线程组按图块并行填充，
+ * 每个图块只由一个线程写入且按命令顺序混合，结果与线程数无关。
+ */
+public class SoftwareRenderer implements IRenderer {
+    private static final int CLEAR_COLOR = 0xFF333333;  // 与 GPU 渲染器的清屏颜色 (0.2, 0.2, 0.2) 一致
+    private static final float CHAR_WIDTH_RATIO = 0.6f;  // 与 TextLayoutCache 的排版一致
+    private static final float SPACING = 1.0f;
+
+    // 图元类型
+    private static final int PRIM_RECT = 0;
+    private static final int PRIM_CIRCLE = 1;
+    private static final int PRIM_LINE = 2;
+    private static final int PRIM_GLYPH = 3;
+    private static final int PRIM_FLOATS = 5;
+
+    private final int width;
+    private final int height;
+    private final String title;
+    private final int[] framebuffer;
+    private final Camera camera;
+    private boolean cameraEnabled;
+    private RenderCommandBuffer commands = new RenderCommandBuffer();
+    private RenderCommandBuffer lastCommands = new RenderCommandBuffer();
+    private final RenderStats renderStats = new RenderStats();
+    private final PrimitiveCollector collector = new PrimitiveCollector();
+
+    // 图元（屏幕坐标）：类型、参数、颜色、字形编号
+    private int primCount;
+    private int[] primTypes = new int[1024];
+    private float[] primData = new float[1024 * PRIM_FLOATS];
+    private int[] primColors = new int[1024];
+    private int[] primGlyphs = new int[1024];
+
+    // 图块分箱
+    private final int tileSize;
+    private final int tilesX;
+    private final int tilesY;
+    private final int[][] tileLists;
+    private final int[] tileCounts;
+
+    // 位图字形：每个字符一张 cellSize × cellSize 的覆盖率表
+    private final int fontSize;
+    private final GlyphRasterizer glyphRasterizer;
+    private final Map<Character, Integer> glyphIndex = new HashMap<>();
+    private final List<byte[]> glyphMasks = new ArrayList<>();
+    private final List<Boolean> glyphWide = new ArrayList<>();
+
+    private int frameCount;
+    private int frameLimit;     // 渲染到该帧数后 shouldClose 返回 true（0 表示不限制）
+    private int screenshotInterval = GameConfig.SOFTWARE_SCREENSHOT_INTERVAL;  // 每隔多少帧保存截图（0 表示不保存）
+    private String screenshotDir = GameConfig.SOFTWARE_SCREENSHOT_DIR;
+    private boolean closeRequested;
+
+    public SoftwareRenderer(int width, int height, String title) {
+        System.setProperty("java.awt.headless", "true");
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.framebuffer = new int[width * height];
+        this.camera = new Camera(width, height);
+        this.tileSize = Math.max(8, GameConfig.SOFTWARE_TILE_SIZE);
+        this.tilesX = (width + tileSize - 1) / tileSize;
+        this.tilesY = (height + tileSize - 1) / tileSize;
+        this.tileLists = new int[tilesX * tilesY][64];
+        this.tileCounts = new int[tilesX * tilesY];
+        this.fontSize = 32;
+        this.glyphRasterizer = new GlyphRasterizer(new Font(Font.MONOSPACED, Font.BOLD, fontSize), fontSize);
+        Arrays.fill(framebuffer, CLEAR_COLOR);
+        System.out.println("软件渲染器初始化完成: " + width + "x" + height + "，图块 " + tilesX + "x" + tilesY);
+    }
+
+    @Override
+    public void beginFrame() {
+        renderStats.beginFrame();
+        cameraEnabled = false;
+        commands.reset();
+    }
+
+    @Override
+    public void endFrame() {
+        primCount = 0;
+        commands.setCameraPosition(camera.getX(), camera.getY());
+        renderStats.addStateChanges(commands.submit(collector));
+        renderStats.addCulledObjects(commands.getCulledObjects());
+        binPrimitives();
+        WorkerTeam.shared().run(tileCounts.length, (start, end) -> {
+            for (int tile = start; tile < end; tile++) {
+                rasterizeTile(tile);
+            }
+        });
+        renderStats.addDrawCall(primCount);
+        renderStats.endFrame();
+
+        RenderCommandBuffer submitted = commands;
+        commands = lastCommands;
+        lastCommands = submitted;
+
+        frameCount++;
+        if (screenshotInterval > 0 && frameCount % screenshotInterval == 0) {
+            saveScreenshot(String.format("%s/frame_%06d.png", screenshotDir, frameCount));
+        }
+    }
+
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        commands.rect(x, y, width, height, r, g, b, a);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (segments < 3) return;
+        commands.circle(x, y, radius, segments, r, g, b, a);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        commands.line(x1, y1, x2, y2, r, g, b, a);
+    }
+
+    @Override
+    public void drawText(float x, float y, CharSequence text, float r, float g, float b, float a) {
+        if (text == null || text.length() == 0) return;
+        commands.text(x, y, text, r, g, b, a);
+    }
+
+    @Override
+    public void drawQuads(float[] quads, int count) {
+        if (count <= 0) return;
+        commands.quads(quads, count);
+    }
+
+    /**
+     * 把排序后的命令转换为屏幕坐标下的图元：应用相机平移，文字展开成字形
+     */
+    private class PrimitiveCollector implements RenderCommandBuffer.Executor {
+        float cameraX;
+        float cameraY;
+
+        @Override
+        public void setCameraEnabled(boolean enabled, float x, float y) {
+            cameraX = enabled ? Math.round(x) : 0;
+            cameraY = enabled ? Math.round(y) : 0;
+        }
+
+        @Override
+        public void rect(float x, float y, float w, float h, float r, float g, float b, float a) {
+            addPrimitive(PRIM_RECT, x - cameraX, y - cameraY, x + w - cameraX, y + h - cameraY, 0, r, g, b, a);
+        }
+
+        @Override
+        public void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+            addPrimitive(PRIM_CIRCLE, x - cameraX, y - cameraY, radius, 0, 0, r, g, b, a);
+        }
+
+        @Override
+        public void line(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+            addPrimitive(PRIM_LINE, x1 - cameraX, y1 - cameraY, x2 - cameraX, y2 - cameraY,
+                    GameConfig.RENDER_LINE_WIDTH * 0.5f, r, g, b, a);
+        }
+
+        @Override
+        public void text(float x, float y, CharSequence text, boolean stable, float r, float g, float b, float a) {
+            float charHeight = fontSize;
+            float charWidth = fontSize * CHAR_WIDTH_RATIO;
+            float currentX = x - cameraX;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ' ') {
+                    currentX += charWidth * 0.5f;
+                    continue;
+                }
+                int glyph = getGlyph(c);
+                float advance = glyphWide.get(glyph) ? charHeight : charWidth;
+                addPrimitive(PRIM_GLYPH, currentX, y - cameraY, advance, charHeight, 0, r, g, b, a);
+                primGlyphs[primCount - 1] = glyph;
+                currentX += advance + SPACING;
+            }
+        }
+    }
+
+    // 字形编号，不存在时光栅化为覆盖率表（只在调用线程上执行）
+    private int getGlyph(char c) {
+        Integer index = glyphIndex.get(c);
+        if (index != null) return index;
+
+        boolean wide = glyphRasterizer.rasterize(c);
+        int[] pixels = glyphRasterizer.getPixels();
+        byte[] mask = new byte[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            mask[i] = (byte) (pixels[i] >>> 24);
+        }
+        glyphMasks.add(mask);
+        glyphWide.add(wide);
+        glyphIndex.put(c, glyphMasks.size() - 1);
+        return glyphMasks.size() - 1;
+    }
+
+    private void addPrimitive(int type, float p0, float p1, float p2, float p3, float p4,
+                              float r, float g, float b, float a) {
+        if (primCount == primTypes.length) {
+            int capacity = primCount * 2;
+            primTypes = Arrays.copyOf(primTypes, capacity);
+            primData = Arrays.copyOf(primData, capacity * PRIM_FLOATS);
+            primColors = Arrays.copyOf(primColors, capacity);
+            primGlyphs = Arrays.copyOf(primGlyphs, capacity);
+        }
+        int o = primCount * PRIM_FLOATS;
+        primData[o] = p0;
+        primData[o + 1] = p1;
+        primData[o + 2] = p2;
+        primData[o + 3] = p3;
+        primData[o + 4] = p4;
+        primTypes[primCount] = type;
+        primColors[primCount] = toArgb(r, g, b, a);
+        primCount++;
+    }
+
+    private static int toArgb(float r, float g, float b, float a) {
+        return (channel(a) << 24) | (channel(r) << 16) | (channel(g) << 8) | channel(b);
+    }
+
+    private static int channel(float v) {
+        return Math.round(Math.max(0f, Math.min(1f, v)) * 255f);
+    }
+
+    /**
+     * 图元包围盒（像素，含左上不含右下），超出屏幕时返回空范围
+     */
+    private void bounds(int i, int[] out) {
+        int o = i * PRIM_FLOATS;
+        float x0, y0, x1, y1;
+        switch (primTypes[i]) {
+            case PRIM_RECT:
+                x0 = primData[o];
+                y0 = primData[o + 1];
+                x1 = primData[o + 2];
+                y1 = primData[o + 3];
+                break;
+            case PRIM_CIRCLE:
+                x0 = primData[o] - primData[o + 2];
+                y0 = primData[o + 1] - primData[o + 2];
+                x1 = primData[o] + primData[o + 2];
+                y1 = primData[o + 1] + primData[o + 2];
+                break;
+            case PRIM_LINE:
+                float half = primData[o + 4];
+                x0 = Math.min(primData[o], primData[o + 2]) - half;
+                y0 = Math.min(primData[o + 1], primData[o + 3]) - half;
+                x1 = Math.max(primData[o], primData[o + 2]) + half;
+                y1 = Math.max(primData[o + 1], primData[o + 3]) + half;
+                break;
+            default:
+                x0 = primData[o];
+                y0 = primData[o + 1];
+                x1 = x0 + primData[o + 2];
+                y1 = y0 + primData[o + 3];
+                break;
+        }
+        // 像素中心 (px + 0.5) 落在 [x0, x1) 内的像素
+        out[0] = Math.max(0, (int) Math.ceil(Math.min(x0, x1) - 0.5f));
+        out[1] = Math.max(0, (int) Math.ceil(Math.min(y0, y1) - 0.5f));
+        out[2] = Math.min(width, (int) Math.ceil(Math.max(x0, x1) - 0.5f));
+        out[3] = Math.min(height, (int) Math.ceil(Math.max(y0, y1) - 0.5f));
+    }
+
+    // 按包围盒把图元编号追加到覆盖的图块，保持提交顺序
+    private void binPrimitives() {
+        Arrays.fill(tileCounts, 0);
+        int[] box = new int[4];
+        for (int i = 0; i < primCount; i++) {
+            bounds(i, box);
+            if (box[0] >= box[2] || box[1] >= box[3]) continue;
+            int tx0 = box[0] / tileSize, ty0 = box[1] / tileSize;
+            int tx1 = (box[2] - 1) / tileSize, ty1 = (box[3] - 1) / tileSize;
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    int tile = ty * tilesX + tx;
+                    if (tileCounts[tile] == tileLists[tile].length) {
+                        tileLists[tile] = Arrays.copyOf(tileLists[tile], tileCounts[tile] * 2);
+                    }
+                    tileLists[tile][tileCounts[tile]++] = i;
+                }
+            }
+        }
+    }
+
+    private void rasterizeTile(int tile) {
+        int minX = (tile % tilesX) * tileSize;
+        int minY = (tile / tilesX) * tileSize;
+        int maxX = Math.min(width, minX + tileSize);
+        int maxY = Math.min(height, minY + tileSize);
+        for (int y = minY; y < maxY; y++) {
+            Arrays.fill(framebuffer, y * width + minX, y * width + maxX, CLEAR_COLOR);
+        }
+
+        int[] box = new int[4];
+        int[] list = tileLists[tile];
+        for (int k = 0; k < tileCounts[tile]; k++) {
+            int i = list[k];
+            bounds(i, box);
+            int x0 = Math.max(box[0], minX), y0 = Math.max(box[1], minY);
+            int x1 = Math.min(box[2], maxX), y1 = Math.min(box[3], maxY);
+            if (x0 >= x1 || y0 >= y1) continue;
+            switch (primTypes[i]) {
+                case PRIM_RECT:
+                    fillRect(i, x0, y0, x1, y1);
+                    break;
+                case PRIM_CIRCLE:
+                    fillCircle(i, x0, y0, x1, y1);
+                    break;
+                case PRIM_LINE:
+                    fillLine(i, x0, y0, x1, y1);
+                    break;
+                default:
+                    fillGlyph(i, x0, y0, x1, y1);
+                    break;
+            }
+        }
+    }
+
+    // 源颜色按 alpha（0~255）混合到帧缓冲，等价于 GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA
+    private void blend(int index, int color, int alpha) {
+        if (alpha <= 0) return;
+        if (alpha >= 255) {
+            framebuffer[index] = 0xFF000000 | color;
+            return;
+        }
+        int dst = framebuffer[index];
+        int inv = 255 - alpha;
+        int r = (((color >> 16) & 0xFF) * alpha + ((dst >> 16) & 0xFF) * inv + 127) / 255;
+        int g = (((color >> 8) & 0xFF) * alpha + ((dst >> 8) & 0xFF) * inv + 127) / 255;
+        int b = ((color & 0xFF) * alpha + (dst & 0xFF) * inv + 127) / 255;
+        framebuffer[index] = 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private void fillRect(int i, int x0, int y0, int x1, int y1) {
+        int color = primColors[i];
+        int alpha = color >>> 24;
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                blend(row + x, color, alpha);
+            }
+        }
+    }
+
+    private void fillCircle(int i, int x0, int y0, int x1, int y1) {
+        int o = i * PRIM_FLOATS;
+        float cx = primData[o], cy = primData[o + 1], radius = primData[o + 2];
+        float r2 = radius * radius;
+        int color = primColors[i];
+        int alpha = color >>> 24;
+        for (int y = y0; y < y1; y++) {
+            float dy = y + 0.5f - cy;
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                float dx = x + 0.5f - cx;
+                if (dx * dx + dy * dy <= r2) {
+                    blend(row + x, color, alpha);
+                }
+            }
+        }
+    }
+
+    // 与 QuadBatch.line 一致：沿法线方向展开的矩形，端点不加圆头
+    private void fillLine(int i, int x0, int y0, int x1, int y1) {
+        int o = i * PRIM_FLOATS;
+        float ax = primData[o], ay = primData[o + 1];
+        float dx = primData[o + 2] - ax, dy = primData[o + 3] - ay;
+        float half = primData[o + 4];
+        float len2 = dx * dx + dy * dy;
+        if (len2 < 1e-6f) return;
+        float invLen = 1.0f / (float) Math.sqrt(len2);
+        int color = primColors[i];
+        int alpha = color >>> 24;
+        for (int y = y0; y < y1; y++) {
+            float py = y + 0.5f - ay;
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                float px = x + 0.5f - ax;
+                float t = (px * dx + py * dy) / len2;
+                if (t < 0 || t > 1) continue;
+                float dist = Math.abs(px * dy - py * dx) * invLen;
+                if (dist <= half) {
+                    blend(row + x, color, alpha);
+                }
+            }
+        }
+    }
+
+    // 字形单元格拉伸到字形矩形，最近邻采样覆盖率
+    private void fillGlyph(int i, int x0, int y0, int x1, int y1) {
+        int o = i * PRIM_FLOATS;
+        float gx = primData[o], gy = primData[o + 1], gw = primData[o + 2], gh = primData[o + 3];
+        byte[] mask = glyphMasks.get(primGlyphs[i]);
+        int cell = glyphRasterizer.getCellSize();
+        int color = primColors[i];
+        int alpha = color >>> 24;
+        for (int y = y0; y < y1; y++) {
+            int v = Math.min(cell - 1, (int) ((y + 0.5f - gy) / gh * cell));
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                int u = Math.min(cell - 1, (int) ((x + 0.5f - gx) / gw * cell));
+                int coverage = mask[v * cell + u] & 0xFF;
+                blend(row + x, color, (coverage * alpha + 127) / 255);
+            }
+        }
+    }
+
+    /**
+     * 把上一帧的帧缓冲保存为 PNG
+     */
+    public boolean saveScreenshot(String path) {
+        try {
+            File file = new File(path);
+            File dir = file.getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                System.err.println("无法创建截图目录: " + dir);
+                return false;
+            }
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            image.setRGB(0, 0, width, height, framebuffer, 0, width);
+            return ImageIO.write(image, "png", file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // 帧缓冲像素（ARGB，按行存储），用于像素对比
+    public int[] getPixels() {
+        return framebuffer;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public void setFrameLimit(int frameLimit) {
+        this.frameLimit = frameLimit;
+    }
+
+    public void setScreenshotInterval(int screenshotInterval) {
+        this.screenshotInterval = Math.max(0, screenshotInterval);
+    }
+
+    public void setScreenshotDir(String screenshotDir) {
+        this.screenshotDir = screenshotDir;
+    }
+
+    public String getScreenshotDir() {
+        return screenshotDir;
+    }
+
+    public void requestClose() {
+        this.closeRequested = true;
+    }
+
+    @Override
+    public void setCameraEnabled(boolean enabled) {
+        cameraEnabled = enabled;
+        commands.setCameraEnabled(enabled);
+    }
+
+    @Override
+    public boolean isCameraEnabled() {
+        return cameraEnabled;
+    }
+
+    @Override
+    public void setLayer(int layer) {
+        commands.setLayer(layer);
+    }
+
+    @Override
+    public void addCulledObjects(int count) {
+        commands.addCulledObjects(count);
+    }
+
+    @Override
+    public RenderCommandBuffer getFrameCommands() {
+        return lastCommands;
+    }
+
+    @Override
+    public Camera getCamera() {
+        return camera;
+    }
+
+    @Override
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return closeRequested || (frameLimit > 0 && frameCount >= frameLimit);
+    }
+
+    @Override
+    public void pollEvents() {
+        // 没有窗口，不处理输入事件
+    }
+
+    @Override
+    public void cleanup() {
+        glyphIndex.clear();
+        glyphMasks.clear();
+        glyphWide.clear();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+}
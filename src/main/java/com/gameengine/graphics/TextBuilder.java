@@ -0,0 +1,81 @@
+package com.gameengine.graphics;
+
+/**
+ * 可复用的文字拼接器：代替每帧调用 String.format 拼 HUD 文字。
+ * 内部复用同一个 StringBuilder，浮点数按固定小数位用整数运算输出，拼接过程不产生对象；
+ * 本身实现 CharSequence，可以直接传给 drawText。
+ */
+public class TextBuilder implements CharSequence {
+    private static final int[] POW10 = {1, 10, 100, 1000, 10000};
+
+    private final StringBuilder sb;
+
+    public TextBuilder() {
+        this(32);
+    }
+
+    public TextBuilder(int capacity) {
+        this.sb = new StringBuilder(capacity);
+    }
+
+    public TextBuilder clear() {
+        sb.setLength(0);
+        return this;
+    }
+
+    public TextBuilder append(CharSequence text) {
+        sb.append(text);
+        return this;
+    }
+
+    public TextBuilder append(char c) {
+        sb.append(c);
+        return this;
+    }
+
+    public TextBuilder append(int value) {
+        sb.append(value);
+        return this;
+    }
+
+    /**
+     * 按固定小数位输出（四舍五入，decimals 取 0~4），等价于 String.format("%.nf")
+     */
+    public TextBuilder append(float value, int decimals) {
+        decimals = Math.max(0, Math.min(decimals, POW10.length - 1));
+        int scale = POW10[decimals];
+        long scaled = Math.round((double) Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            sb.append('-');
+        }
+        sb.append(scaled / scale);
+        if (decimals > 0) {
+            sb.append('.');
+            long fraction = scaled % scale;
+            for (int p = scale / 10; p > 0; p /= 10) {
+                sb.append((char) ('0' + (fraction / p) % 10));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return sb.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return sb.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return sb.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.gameengine.graphics;
+
+/**
+ * 文字排版缓存：按文字内容缓存排好的字形矩形（相对起点的偏移、宽度和图集纹理坐标），
+ * 相同文字再次绘制时直接提交缓存的矩形。一个缓存对应一种字体样式（图集和字号），颜色在提交时指定。
+ * 查找直接比较 CharSequence 的字符，StringBuilder 拼出的文字命中缓存时不产生任何对象；
+ * 条目数达到上限时整体清空重建。只应缓存内容固定的文字：逐帧变化的数值文字每个新值都会未命中并分配，
+ * 应使用 submitDirect 直接按字形排版提交。
+ */
+public class TextLayoutCache {
+    private static final float CHAR_WIDTH_RATIO = 0.6f;  // 半角字符宽度与字号之比
+    private static final float SPACING = 1.0f;           // 字符间距
+
+    /**
+     * 排好的一行文字：每个字形 6 个数 dx, w, u0, v0, u1, v1
+     */
+    public static class Layout {
+        final float[] glyphs;
+        final int glyphCount;
+        final float width;
+
+        Layout(float[] glyphs, int glyphCount, float width) {
+            this.glyphs = glyphs;
+            this.glyphCount = glyphCount;
+            this.width = width;
+        }
+
+        public float getWidth() {
+            return width;
+        }
+    }
+
+    private final GlyphAtlas atlas;
+    private final float fontSize;
+    private final int maxEntries;
+    // 开放寻址哈希表，容量为 2 的幂且至少是条目上限的两倍
+    private final String[] keys;
+    private final int[] hashes;
+    private final Layout[] layouts;
+    private final int mask;
+    private int size;
+    private float[] scratch = new float[64 * 6];
+    private int hits;
+    private int misses;
+
+    public TextLayoutCache(GlyphAtlas atlas, float fontSize, int maxEntries) {
+        this.atlas = atlas;
+        this.fontSize = fontSize;
+        this.maxEntries = Math.max(1, maxEntries);
+        int capacity = Integer.highestOneBit(this.maxEntries * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.hashes = new int[capacity];
+        this.layouts = new Layout[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // 与 String.hashCode 相同的算法，保证 String 和 StringBuilder 得到同一个槽位
+    private static int hash(CharSequence text) {
+        int h = 0;
+        for (int i = 0; i < text.length(); i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        return h;
+    }
+
+    private static boolean contentEquals(String key, CharSequence text) {
+        if (key.length() != text.length()) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取文字的排版，不存在时排版并缓存
+     */
+    public Layout get(CharSequence text) {
+        int h = hash(text);
+        int index = (h ^ (h >>> 16)) & mask;
+        while (keys[index] != null) {
+            if (hashes[index] == h && contentEquals(keys[index], text)) {
+                hits++;
+                return layouts[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        misses++;
+        if (size >= maxEntries) {
+            clear();
+            index = (h ^ (h >>> 16)) & mask;
+        }
+        Layout layout = layout(text);
+        keys[index] = text.toString();
+        hashes[index] = h;
+        layouts[index] = layout;
+        size++;
+        return layout;
+    }
+
+    // 按 GPURenderer 原有的字符宽度和间距排版
+    private Layout layout(CharSequence text) {
+        float charHeight = fontSize;
+        float charWidth = fontSize * CHAR_WIDTH_RATIO;
+        float currentX = 0;
+        int count = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                currentX += charWidth * 0.5f;
+                continue;
+            }
+
+            GlyphAtlas.Glyph glyph = atlas.getGlyph(c);
+            float advance = glyph != null && glyph.wide ? charHeight : charWidth;
+            if (glyph != null) {
+                if ((count + 1) * 6 > scratch.length) {
+                    float[] larger = new float[scratch.length * 2];
+                    System.arraycopy(scratch, 0, larger, 0, count * 6);
+                    scratch = larger;
+                }
+                int base = count * 6;
+                scratch[base] = currentX;
+                scratch[base + 1] = advance;
+                scratch[base + 2] = glyph.u0;
+                scratch[base + 3] = glyph.v0;
+                scratch[base + 4] = glyph.u1;
+                scratch[base + 5] = glyph.v1;
+                count++;
+            }
+
+            currentX += advance + SPACING;
+        }
+
+        float[] glyphs = new float[count * 6];
+        System.arraycopy(scratch, 0, glyphs, 0, glyphs.length);
+        return new Layout(glyphs, count, currentX);
+    }
+
+    /**
+     * 把排版好的文字追加到批处理器
+     */
+    public void submit(QuadBatch batch, Layout layout, float x, float y, float r, float g, float b, float a) {
+        float[] glyphs = layout.glyphs;
+        for (int i = 0; i < layout.glyphCount; i++) {
+            int base = i * 6;
+            batch.texturedQuad(x + glyphs[base], y, glyphs[base + 1], fontSize,
+                    glyphs[base + 2], glyphs[base + 3], glyphs[base + 4], glyphs[base + 5], r, g, b, a);
+        }
+    }
+
+    /**
+     * 不经过缓存，逐个查图集字形直接排版并提交（用于内容逐帧变化的文字，不产生对象）
+     */
+    public void submitDirect(QuadBatch batch, CharSequence text, float x, float y, float r, float g, float b, float a) {
+        float charHeight = fontSize;
+        float charWidth = fontSize * CHAR_WIDTH_RATIO;
+        float currentX = x;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                currentX += charWidth * 0.5f;
+                continue;
+            }
+            GlyphAtlas.Glyph glyph = atlas.getGlyph(c);
+            float advance = glyph != null && glyph.wide ? charHeight : charWidth;
+            if (glyph != null) {
+                batch.texturedQuad(currentX, y, advance, charHeight, glyph.u0, glyph.v0, glyph.u1, glyph.v1, r, g, b, a);
+            }
+            currentX += advance + SPACING;
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+            layouts[i] = null;
+        }
+        size = 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+}
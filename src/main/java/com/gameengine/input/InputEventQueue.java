@@ -0,0 +1,86 @@
+package com.gameengine.input;
+
+/**
+ * 输入事件队列：预分配的环形缓冲，写入和读取都在主线程。
+ * GLFW 回调在 glfwPollEvents 内部触发，先把事件记录到数组中，
+ * 轮询结束后再一次性按顺序交给 InputManager，使输入状态只在每帧的固定位置更新，且不产生对象。
+ * 队列满时丢弃新事件并计数。
+ */
+public class InputEventQueue {
+    public static final int KEY_PRESSED = 0;
+    public static final int KEY_RELEASED = 1;
+    public static final int MOUSE_PRESSED = 2;
+    public static final int MOUSE_RELEASED = 3;
+    public static final int MOUSE_MOVED = 4;
+
+    private final int mask;
+    private final int[] types;
+    private final int[] codes;
+    private final float[] xs;
+    private final float[] ys;
+    private long head;   // 下一个读取位置
+    private long tail;   // 下一个写入位置
+    private int dropped;
+
+    public InputEventQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.mask = size - 1;
+        this.types = new int[size];
+        this.codes = new int[size];
+        this.xs = new float[size];
+        this.ys = new float[size];
+    }
+
+    /**
+     * 写入一个事件（由 GLFW 回调调用），队列满时返回 false
+     */
+    public boolean offer(int type, int code, float x, float y) {
+        if (tail - head > mask) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) tail & mask;
+        types[slot] = type;
+        codes[slot] = code;
+        xs[slot] = x;
+        ys[slot] = y;
+        tail++;
+        return true;
+    }
+
+    /**
+     * 把队列中的事件按顺序交给输入管理器并清空队列，返回处理的事件数
+     */
+    public int drainTo(InputManager input) {
+        long h = head;
+        long t = tail;
+        for (long i = h; i < t; i++) {
+            int slot = (int) i & mask;
+            switch (types[slot]) {
+                case KEY_PRESSED:
+                    input.onKeyPressed(codes[slot]);
+                    break;
+                case KEY_RELEASED:
+                    input.onKeyReleased(codes[slot]);
+                    break;
+                case MOUSE_PRESSED:
+                    input.onMousePressed(codes[slot]);
+                    break;
+                case MOUSE_RELEASED:
+                    input.onMouseReleased(codes[slot]);
+                    break;
+                case MOUSE_MOVED:
+                    input.onMouseMoved(xs[slot], ys[slot]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        head = t;
+        return (int) (t - h);
+    }
+
+    public int getDroppedCount() {
+        return dropped;
+    }
+}
@@ -86,7 +86,8 @@ public class RecordingService {
         writerThread.start();
 
         // header
-        enqueue("{\"type\":\"header\",\"version\":1,\"w\":" + width + ",\"h\":" + height + "}");
+        enqueue("{\"type\":\"header\",\"version\":1,\"w\":" + width + ",\"h\":" + height
+                + ",\"worldW\":" + qfmt.format(scene.getWorldWidth()) + ",\"worldH\":" + qfmt.format(scene.getWorldHeight()) + "}");
         keyframeElapsed = 0.0;
     }
 
@@ -8,7 +8,11 @@ import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.Component;
+import com.gameengine.core.ParticleManager;
+import com.gameengine.core.WorldPartition;
+import com.gameengine.graphics.Camera;
 import com.gameengine.graphics.IRenderer;
+import com.gameengine.graphics.TextBuilder;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,9 +24,34 @@ import java.util.stream.Collectors;
 public class Scene {
     private String name;
     private List<GameObject> gameObjects;   // 当前游戏对象
+    private final List<GameObject> gameObjectsView;   // gameObjects 的只读视图，每帧遍历时不复制
     private List<GameObject> objectsToAdd;  // 待添加对象
     private List<GameObject> objectsToRemove;   // 待删除对象
     private boolean initialized;    // 场景是否初始化
+    private float worldWidth;       // 世界尺寸（未设置时与屏幕相同）
+    private float worldHeight;
+    private WorldPartition worldPartition;  // 世界分块（设置世界尺寸后创建）
+    private final ParticleManager particleManager;  // 场景内所有粒子发射器共享的粒子池
+    private final TextBuilder hudText = new TextBuilder();  // HUD 数值文字复用的拼接器
+
+    // 视口剔除：只渲染包围盒与视口相交的对象
+    private final float[] renderBounds = new float[4];
+    private boolean[] renderVisible = new boolean[64];     // 本帧 gameObjects 中各对象是否渲染
+
+    // HUD 技能栏常量
+    private static final SkillComponent.SkillType[] SKILL_TYPES = {
+            SkillComponent.SkillType.MELEE_ATTACK,
+            SkillComponent.SkillType.RANGED_ATTACK,
+            SkillComponent.SkillType.DODGE
+    };
+    private static final String[] SKILL_KEYS = {"Z", "X", "C"};
+    private static final RenderComponent.Color[] SKILL_COLORS = {
+            new RenderComponent.Color(1.0f, 0.0f, 0.0f, 1.0f), // 红色 - 近战
+            new RenderComponent.Color(0.0f, 1.0f, 1.0f, 1.0f), // 青色 - 远程
+            new RenderComponent.Color(0.0f, 1.0f, 0.0f, 1.0f)  // 绿色 - 闪避
+    };
+    private static final RenderComponent.Color SKILL_READY_COLOR = new RenderComponent.Color(0.3f, 0.3f, 0.5f, 1.0f);
+    private static final RenderComponent.Color SKILL_COOLDOWN_COLOR = new RenderComponent.Color(0.5f, 0.2f, 0.2f, 1.0f);
 
     // J03: 从Scene出发通信
     private GameEngine engine;
@@ -41,9 +70,41 @@ public class Scene {
     public Scene(String name) {
         this.name = name;
         this.gameObjects = new ArrayList<>();
+        this.gameObjectsView = Collections.unmodifiableList(gameObjects);
         this.objectsToAdd = new ArrayList<>();
         this.objectsToRemove = new ArrayList<>();
         this.initialized = false;
+        this.particleManager = new ParticleManager(GameConfig.PARTICLE_POOL_CAPACITY);
+    }
+
+    /**
+     * 设置世界尺寸：世界可以大于屏幕，并按 WORLD_CHUNK_SIZE 划分区块
+     */
+    public void setWorldBounds(float worldWidth, float worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.worldPartition = new WorldPartition(worldWidth, worldHeight, GameConfig.WORLD_CHUNK_SIZE);
+    }
+
+    public float getWorldWidth() {
+        if (worldWidth > 0) return worldWidth;
+        IRenderer renderer = getRenderer();
+        return renderer != null ? renderer.getWidth() : GameConfig.WINDOW_WIDTH;
+    }
+
+    public float getWorldHeight() {
+        if (worldHeight > 0) return worldHeight;
+        IRenderer renderer = getRenderer();
+        return renderer != null ? renderer.getHeight() : GameConfig.WINDOW_HEIGHT;
+    }
+
+    public ParticleManager getParticleManager() {
+        return particleManager;
+    }
+
+    // 未设置世界尺寸时返回 null，表示整个场景全频率模拟
+    public WorldPartition getWorldPartition() {
+        return worldPartition;
     }
 
     // 初始化所有对象
@@ -81,27 +142,40 @@ public class Scene {
                 iterator.remove();
             }
         }
+
+        // 所有发射器的粒子统一更新
+        particleManager.update(deltaTime);
     }
 
     // J03: 丰富游戏逻辑: UI
+    // 每帧调用，不产生对象：玩家直接遍历查找，颜色和键位使用静态常量，文字用 hudText 拼接
     public void renderUI() {
         IRenderer renderer = getRenderer();
         if (renderer == null) return;
+
+        // 查找玩家
+        GameObject player = findFirstWithComponent(com.gameengine.components.TransformComponent.class);
+        if (player == null) return;
+
         // 渲染玩家血条
-        renderPlayerHealthBar();
+        renderPlayerHealthBar(renderer, player);
         // 渲染玩家技能
-        renderSkillBar();
+        renderSkillBar(renderer, player);
     }
 
-    // J03: 丰富游戏逻辑: 技能UI
-    private void renderSkillBar(){
-        IRenderer renderer = getRenderer();
-        if(renderer == null) return;
-
-        GameObject player = findGameObjectsByComponent(com.gameengine.components.TransformComponent.class)
-                .stream().findFirst().orElse(null);
-        if (player == null) return;
+    // 第一个带指定组件的对象（不经过 stream，避免每帧分配）
+    private <T extends Component<T>> GameObject findFirstWithComponent(Class<T> componentType) {
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject obj = gameObjects.get(i);
+            if (obj.hasComponent(componentType)) {
+                return obj;
+            }
+        }
+        return null;
+    }
 
+    // J03: 丰富游戏逻辑: 技能UI
+    private void renderSkillBar(IRenderer renderer, GameObject player){
         SkillComponent skill = player.getComponent(SkillComponent.class);
         if(skill == null)return;
 
@@ -116,26 +190,12 @@ public class Scene {
         );
 
         // 渲染三个技能图标
-        SkillComponent.SkillType[] skillTypes = {
-                SkillComponent.SkillType.MELEE_ATTACK,
-                SkillComponent.SkillType.RANGED_ATTACK,
-                SkillComponent.SkillType.DODGE
-        };
-
-        String[] skillKeys = {"Z", "X", "C"};
-        RenderComponent.Color[] skillColors = {
-                new RenderComponent.Color(1.0f, 0.0f, 0.0f, 1.0f), // 红色 - 近战
-                new RenderComponent.Color(0.0f, 1.0f, 1.0f, 1.0f), // 青色 - 远程
-                new RenderComponent.Color(0.0f, 1.0f, 0.0f, 1.0f)  // 绿色 - 闪避
-        };
-
-        for (int i = 0; i < skillTypes.length; i++) {
+        for (int i = 0; i < SKILL_TYPES.length; i++) {
             int iconX = skillBarX + i * GameConfig.SKILL_ICON_SPACING;
 
             // 技能图标背景
-            RenderComponent.Color bgColor = skill.isSkillReady(skillTypes[i]) ?
-                    new RenderComponent.Color(0.3f, 0.3f, 0.5f, 1.0f) :
-                    new RenderComponent.Color(0.5f, 0.2f, 0.2f, 1.0f);
+            RenderComponent.Color bgColor = skill.isSkillReady(SKILL_TYPES[i]) ?
+                    SKILL_READY_COLOR : SKILL_COOLDOWN_COLOR;
 
             renderer.drawRect(
                     iconX, GameConfig.SKILL_BAR_Y,
@@ -147,13 +207,13 @@ public class Scene {
             renderer.drawRect(
                     iconX + 10, GameConfig.SKILL_BAR_Y + 10,
                     GameConfig.SKILL_ICON_SIZE - 20, GameConfig.SKILL_ICON_SIZE - 20,
-                    skillColors[i].r, skillColors[i].g, skillColors[i].b, skillColors[i].a
+                    SKILL_COLORS[i].r, SKILL_COLORS[i].g, SKILL_COLORS[i].b, SKILL_COLORS[i].a
             );
 
             // 冷却时间显示
-            float cooldown = skill.getSkillCooldown(skillTypes[i]);
+            float cooldown = skill.getSkillCooldown(SKILL_TYPES[i]);
             if (cooldown > 0) {
-                float totalCooldown = skill.getSkillTotalCooldown(skillTypes[i]);
+                float totalCooldown = skill.getSkillTotalCooldown(SKILL_TYPES[i]);
                 float progress = cooldown / totalCooldown;
 
                 // 冷却覆盖层
@@ -164,18 +224,18 @@ public class Scene {
                 );
 
                 // 冷却时间文字
-                String cooldownText = String.format("%.1f", cooldown);
+                hudText.clear().append(cooldown, 1);
                 renderer.drawText(
                         iconX + GameConfig.SKILL_ICON_SIZE / 2 - 15,
                         GameConfig.SKILL_BAR_Y + GameConfig.SKILL_ICON_SIZE / 2 - 8,
-                        cooldownText, 1.0f, 1.0f, 1.0f, 1.0f
+                        hudText, 1.0f, 1.0f, 1.0f, 1.0f
                 );
             }
 
             // 技能键位文字
             renderer.drawText(
                     iconX + 5, GameConfig.SKILL_BAR_Y + 5,
-                    skillKeys[i], 1.0f, 1.0f, 1.0f, 1.0f
+                    SKILL_KEYS[i], 1.0f, 1.0f, 1.0f, 1.0f
             );
         }
 
@@ -206,10 +266,11 @@ public class Scene {
         );
 
         // 魔力文字
-        String manaText = String.format("MP: %.0f/%.0f", skill.getCurrentMana(), skill.getMaxMana());
+        hudText.clear().append("MP: ").append(skill.getCurrentMana(), 0)
+                .append('/').append(skill.getMaxMana(), 0);
         renderer.drawText(
                 barX + 10, barY + 15,
-                manaText,
+                hudText,
                 1.0f, 1.0f, 1.0f, 1.0f
         );
     }
@@ -218,15 +279,7 @@ public class Scene {
 
 
     // J03: 丰富游戏逻辑: 玩家血量UI
-    private void renderPlayerHealthBar() {
-        IRenderer renderer = getRenderer();
-        if (renderer == null) return;
-
-        // 查找玩家
-        GameObject player = findGameObjectsByComponent(com.gameengine.components.TransformComponent.class)
-                .stream().findFirst().orElse(null);
-        if (player == null) return;
-
+    private void renderPlayerHealthBar(IRenderer renderer, GameObject player) {
         HealthComponent health = player.getComponent(HealthComponent.class);
         if (health == null) return;
 
@@ -268,32 +321,88 @@ public class Scene {
         );
 
         // 血量文字
-        String healthText = String.format("HP: %.0f/%.0f", health.getCurrentHealth(), health.getMaxHealth());
+        hudText.clear().append("HP: ").append(health.getCurrentHealth(), 0)
+                .append('/').append(health.getMaxHealth(), 0);
         renderer.drawText(
                 barX + 10, barY + 15,
-                healthText,
+                hudText,
                 1.0f, 1.0f, 1.0f, 1.0f
         );
 
         // 无敌状态指示
         if (health.isInvulnerable()) {
             float invulTime = health.getInvulnerableTimeRemaining();
-            String invulText = String.format("无敌: %.1fs", invulTime);
+            hudText.clear().append("无敌: ").append(invulTime, 1).append('s');
             renderer.drawText(
                     barX, barY + 25,
-                    invulText,
+                    hudText,
                     0.5f, 0.5f, 1.0f, 1.0f
             );
         }
     }
 
-    // 渲染所有活跃对象
+    // 渲染视口内的活跃对象，然后一次性提交所有粒子
     public void render() {
-        for (GameObject obj : gameObjects) {
-            if (obj.isActive()) {
-                obj.render();
+        IRenderer renderer = getRenderer();
+        if (GameConfig.RENDER_CULLING && renderer != null) {
+            int culled = markVisibleObjects(renderer);
+            for (int i = 0; i < gameObjects.size(); i++) {
+                if (renderVisible[i]) {
+                    gameObjects.get(i).render();
+                }
+            }
+            renderer.addCulledObjects(culled);
+        } else {
+            for (GameObject obj : gameObjects) {
+                if (obj.isActive()) {
+                    obj.render();
+                }
             }
         }
+        particleManager.render(renderer);
+    }
+
+    /**
+     * 标记本帧需要渲染的对象（renderVisible），返回被剔除的对象数。
+     * 没有包围盒的对象总是渲染；其余对象的包围盒与视口矩形相交时渲染。
+     * 对象每帧都要遍历并重新计算包围盒，直接判断比维护空间索引更省
+     */
+    private int markVisibleObjects(IRenderer renderer) {
+        int n = gameObjects.size();
+        if (renderVisible.length < n) {
+            renderVisible = new boolean[Math.max(n, renderVisible.length * 2)];
+        }
+
+        // 视口：启用相机时为相机可见范围（世界坐标），否则为屏幕
+        float margin = GameConfig.RENDER_CULL_MARGIN;
+        float viewMinX, viewMinY, viewMaxX, viewMaxY;
+        if (renderer.isCameraEnabled()) {
+            Camera camera = renderer.getCamera();
+            viewMinX = camera.getX() - margin;
+            viewMinY = camera.getY() - margin;
+            viewMaxX = camera.getViewRight() + margin;
+            viewMaxY = camera.getViewBottom() + margin;
+        } else {
+            viewMinX = -margin;
+            viewMinY = -margin;
+            viewMaxX = renderer.getWidth() + margin;
+            viewMaxY = renderer.getHeight() + margin;
+        }
+
+        int culled = 0;
+        for (int i = 0; i < n; i++) {
+            GameObject obj = gameObjects.get(i);
+            if (!obj.isActive()) {
+                renderVisible[i] = false;
+            } else if (!obj.getRenderBounds(renderBounds)) {
+                renderVisible[i] = true;
+            } else {
+                renderVisible[i] = renderBounds[0] <= viewMaxX && renderBounds[2] >= viewMinX
+                        && renderBounds[1] <= viewMaxY && renderBounds[3] >= viewMinY;
+                if (!renderVisible[i]) culled++;
+            }
+        }
+        return culled;
     }
 
     // 添加对象（下一帧）
@@ -322,6 +431,7 @@ public class Scene {
     }
     
     public void clear() {
+        particleManager.clear();
         gameObjects.clear();
         objectsToAdd.clear();
         objectsToRemove.clear();
@@ -334,4 +444,11 @@ public class Scene {
     public List<GameObject> getGameObjects() {
         return new ArrayList<>(gameObjects);
     }
+
+    /**
+     * 当前对象列表的只读视图（不复制）；只能在主线程遍历，遍历期间场景不能增删对象
+     */
+    public List<GameObject> getGameObjectsView() {
+        return gameObjectsView;
+    }
 }